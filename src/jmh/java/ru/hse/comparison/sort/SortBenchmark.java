@@ -0,0 +1,66 @@
+package ru.hse.comparison.sort;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import ru.hse.comparison.sort.impl.InsertionSortEngine;
+import ru.hse.comparison.sort.impl.JdkSortEngine;
+import ru.hse.comparison.sort.impl.ParallelSortEngine;
+import ru.hse.comparison.sort.impl.RadixSortEngine;
+import ru.hse.comparison.util.IntArrayBuffer;
+import ru.hse.comparison.util.Utils;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of Utils.sortArray per engine, time includes copying the unsorted input into the work array.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SortBenchmark {
+    @Param({"100", "1000", "10000"})
+    private int size;
+
+    @Param({"insertion", "jdk", "radix", "parallel"})
+    private String engine;
+
+    private SortEngine sortEngine;
+    private int[] input;
+    private IntArrayBuffer work;
+
+    @Setup
+    public void setup() {
+        switch (engine) {
+            case "insertion":
+                sortEngine = new InsertionSortEngine();
+                break;
+            case "jdk":
+                sortEngine = new JdkSortEngine();
+                break;
+            case "radix":
+                sortEngine = new RadixSortEngine();
+                break;
+            case "parallel":
+                sortEngine = new ParallelSortEngine();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown sort engine " + engine);
+        }
+        input = new Random(42).ints(size).toArray();
+        work = IntArrayBuffer.wrap(new int[size]);
+    }
+
+    @Benchmark
+    public IntArrayBuffer sortArray() {
+        System.arraycopy(input, 0, work.data(), 0, size);
+        Utils.sortArray(work, sortEngine);
+        return work;
+    }
+}
@@ -0,0 +1,93 @@
+package ru.hse.comparison.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import ru.hse.comparison.protos.IntArray;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Per-request encoding costs: channel framing used by blocking servers and clients, here over
+ * in-memory channels to leave the socket out, ByteBuffer framing used by NonBlockingServer workers
+ * and generated protobuf code as a baseline.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CodecBenchmark {
+    @Param({"100", "1000", "10000", "100000"})
+    private int size;
+
+    private IntArrayBuffer array;
+    private List<Integer> boxedArray;
+    private byte[] frame;
+    private byte[] message;
+    private ByteBuffer directMessage;
+    private ByteBuffer directFrame;
+    private ByteArrayOutputStream outputStream;
+    private WritableByteChannel outputChannel;
+
+    @Setup
+    public void setup() throws IOException {
+        int[] data = new Random(42).ints(size).toArray();
+        array = IntArrayBuffer.wrap(data);
+        boxedArray = Arrays.stream(data).boxed().collect(Collectors.toList());
+        outputStream = new ByteArrayOutputStream(IntArrayCodec.frameSize(array));
+        outputChannel = Channels.newChannel(outputStream);
+        frame = IntArrayCodec.toFrame(array);
+        message = Arrays.copyOfRange(frame, Integer.BYTES, frame.length);
+        directMessage = ByteBuffer.allocateDirect(message.length).put(message).flip();
+        directFrame = ByteBuffer.allocateDirect(IntArrayCodec.frameSize(array));
+    }
+
+    @Benchmark
+    public IntArrayBuffer readArray() throws IOException {
+        byte[] data = Utils.readMessage(Channels.newChannel(new ByteArrayInputStream(frame)));
+        return IntArrayCodec.parse(data, IntArrayBuffer.local());
+    }
+
+    @Benchmark
+    public int writeArray() throws IOException {
+        outputStream.reset();
+        Utils.writeArray(outputChannel, array);
+        return outputStream.size();
+    }
+
+    @Benchmark
+    public IntArrayBuffer parseDirectBuffer() throws IOException {
+        return IntArrayCodec.parse(directMessage.duplicate(), IntArrayBuffer.local());
+    }
+
+    @Benchmark
+    public ByteBuffer writeDirectFrame() throws IOException {
+        directFrame.clear();
+        IntArrayCodec.writeFrame(array, directFrame);
+        return directFrame;
+    }
+
+    @Benchmark
+    public IntArray parseProtobuf() throws IOException {
+        return IntArray.parseFrom(message);
+    }
+
+    @Benchmark
+    public byte[] serializeProtobuf() {
+        return IntArray.newBuilder().setSize(boxedArray.size()).addAllElem(boxedArray).build().toByteArray();
+    }
+}
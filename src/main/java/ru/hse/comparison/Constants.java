@@ -1,9 +1,14 @@
 package ru.hse.comparison;
 
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
 public class Constants {
-    public final static int SLEEP = 1000;
+    public final static int SERVER_STOP_TIMEOUT = 10000;
+    public final static int MAX_WARMUP_RUNS = 20;
     public final static int PORT = 1234;
     public final static String HOST = "localhost";
+    public final static Path SOCKET_PATH = Paths.get(System.getProperty("java.io.tmpdir"), "server-comparison.sock");
 
     private Constants() {}
 }
@@ -10,9 +10,27 @@ import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVPrinter;
 import ru.hse.comparison.Constants;
 import ru.hse.comparison.client.ClientRunner;
+import ru.hse.comparison.client.LoadGenerator;
+import ru.hse.comparison.client.NioClientRunner;
 import ru.hse.comparison.server.Server;
+import ru.hse.comparison.server.ServerConfig;
+import ru.hse.comparison.server.impl.AsyncServer;
 import ru.hse.comparison.server.impl.BlockingServer;
 import ru.hse.comparison.server.impl.NonBlockingServer;
+import ru.hse.comparison.server.impl.ThreadPerCoreServer;
+import ru.hse.comparison.server.impl.VirtualThreadServer;
+import ru.hse.comparison.sort.SortEngine;
+import ru.hse.comparison.sort.impl.InsertionSortEngine;
+import ru.hse.comparison.sort.impl.JdkSortEngine;
+import ru.hse.comparison.sort.impl.ParallelSortEngine;
+import ru.hse.comparison.sort.impl.RadixSortEngine;
+import ru.hse.comparison.statistics.Histogram;
+import ru.hse.comparison.statistics.ServerStatistics;
+import ru.hse.comparison.statistics.Statistics;
+import ru.hse.comparison.statistics.SteadyStateDetector;
+import ru.hse.comparison.statistics.TrialStatistics;
+import ru.hse.comparison.util.SocketProfile;
+import ru.hse.comparison.util.Transport;
 
 import java.io.FileWriter;
 import java.io.IOException;
@@ -20,42 +38,92 @@ import java.io.PrintStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.text.DecimalFormat;
+import java.util.ArrayList;
 import java.util.EnumMap;
+import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 public class MainApp {
     public enum ServerType {
         BLOCKING,
-        NON_BLOCKING
+        NON_BLOCKING,
+        ASYNC,
+        VIRTUAL,
+        THREAD_PER_CORE
     }
 
     public enum Criteria {
         ARRAY_SIZE,
         CLIENT_NUMBER,
-        SENDING_DELTA
+        SENDING_DELTA,
+        RATE,
+        BATCH
     }
 
-    private static EnumMap<ServerType, Server> servers = new EnumMap<>(ServerType.class);
+    public enum SortType {
+        INSERTION,
+        JDK,
+        RADIX,
+        PARALLEL
+    }
+
+    private static final String[] TRIAL_HEADERS = {"TrialMean", "TrialStdDev", "CI95Low", "CI95High"};
+
+    private static EnumMap<ServerType, Function<ServerConfig, Server>> servers = new EnumMap<>(ServerType.class);
+    private static EnumMap<SortType, Supplier<SortEngine>> sortEngines = new EnumMap<>(SortType.class);
 
     static {
-        servers.put(ServerType.BLOCKING, new BlockingServer());
-        servers.put(ServerType.NON_BLOCKING, new NonBlockingServer());
+        servers.put(ServerType.BLOCKING, BlockingServer::new);
+        servers.put(ServerType.NON_BLOCKING, NonBlockingServer::new);
+        servers.put(ServerType.ASYNC, AsyncServer::new);
+        servers.put(ServerType.VIRTUAL, VirtualThreadServer::new);
+        servers.put(ServerType.THREAD_PER_CORE, ThreadPerCoreServer::new);
+
+        sortEngines.put(SortType.INSERTION, InsertionSortEngine::new);
+        sortEngines.put(SortType.JDK, JdkSortEngine::new);
+        sortEngines.put(SortType.RADIX, RadixSortEngine::new);
+        sortEngines.put(SortType.PARALLEL, ParallelSortEngine::new);
     }
 
     public static void main(String[] args) throws IOException, ExecutionException, InterruptedException {
         Options options = new Options();
         options.addOption("blocking", false, "isBlockArchitecture");
         options.addOption("nonblocking", false, "isNonBlockArchitecture");
+        options.addOption("async", false, "isAsyncArchitecture");
+        options.addOption("virtual", false, "isVirtualThreadArchitecture");
+        options.addOption("threadpercore", false, "isThreadPerCoreArchitecture");
         options.addOption("requests", true, "number of requests(X)");
         options.addOption("size", true, "test if arraySize is criteria else value of it(N)");
         options.addOption("clients", true, "test if clientNumber is criteria else value of it(M)");
         options.addOption("delta", true, "test if sendingDelta is criteria else value of it(D)");
+        options.addOption("rate", true, "test if open loop request rate is criteria else value of it, requests per second of all clients, closed loop if absent");
+        options.addOption("batch", true, "test if batchSize is criteria else value of it, number of arrays sent in one frame, 1 is default");
         options.addOption("start", true, "lowerBoundValue");
         options.addOption("end", true, "upperBoundValue");
         options.addOption("step", true, "step of criteria value");
+        options.addOption("nioclient", false, "drive clients from a few selector threads instead of threads per client");
+        options.addOption("warmup", true, "number of unmeasured runs before each criteria value, 0 is default");
+        options.addOption("steady", true, "keep warming up until mean latency of last runs varies less than this fraction, off by default");
+        options.addOption("trials", true, "number of measured runs of each criteria value, 1 is default");
+        options.addOption("fresh", false, "start a new server instance before every trial");
+        options.addOption("forkjoin", true, "sort on a work-stealing ForkJoinPool and split arrays longer than this threshold between its workers");
+        options.addOption("unix", false, "connect clients to server over a Unix domain socket instead of TCP loopback, not supported by Async and ThreadPerCore");
+        options.addOption("nodelay", false, "set TCP_NODELAY on server and client sockets");
+        options.addOption("rcvbuf", true, "SO_RCVBUF of server and client sockets in bytes, system default if absent");
+        options.addOption("sndbuf", true, "SO_SNDBUF of server and client sockets in bytes, system default if absent");
+        options.addOption("backlog", true, "accept backlog of server socket, JDK default if absent");
         options.addOption("resdir", true, "result directory, current directory is default");
+        options.addOption("reactors", true, "number of selector threads of NonBlocking architecture, 1 is default");
+        options.addOption("inline", true, "sort arrays of at most this size on the NonBlocking reactor thread, off by default");
+        options.addOption("queue", true, "maximum number of requests queued or sorted by server workers at once, 1024 is default");
+        options.addOption("cores", true, "number of event loops of ThreadPerCore architecture, number of processors is default");
+        options.addOption("sort", true, "sort engine: insertion, jdk, radix or parallel, insertion is default");
 
         HelpFormatter formatter = new HelpFormatter();
         formatter.printHelp( "server-comparison", options );
@@ -69,19 +137,72 @@ public class MainApp {
             System.out.println("Something went wrong! Please, try again");
             return;
         }
+        ServerConfig serverConfig = new ServerConfig();
+        if (cmd.hasOption("reactors")) {
+            serverConfig.setReactors(Integer.parseInt(cmd.getOptionValue("reactors")));
+        }
+        if (cmd.hasOption("forkjoin")) {
+            serverConfig.setForkJoinThreshold(Integer.parseInt(cmd.getOptionValue("forkjoin")));
+        }
+        SocketProfile socketProfile = new SocketProfile().setTcpNoDelay(cmd.hasOption("nodelay"));
+        if (cmd.hasOption("rcvbuf")) {
+            socketProfile.setReceiveBufferSize(Integer.parseInt(cmd.getOptionValue("rcvbuf")));
+        }
+        if (cmd.hasOption("sndbuf")) {
+            socketProfile.setSendBufferSize(Integer.parseInt(cmd.getOptionValue("sndbuf")));
+        }
+        if (cmd.hasOption("backlog")) {
+            socketProfile.setBacklog(Integer.parseInt(cmd.getOptionValue("backlog")));
+        }
+        serverConfig.setSocketProfile(socketProfile);
+        Transport transport = cmd.hasOption("unix") ? Transport.UNIX : Transport.TCP;
+        if (transport == Transport.UNIX && (cmd.hasOption("async") || cmd.hasOption("threadpercore"))) {
+            System.out.println("Async and ThreadPerCore architectures work only over TCP");
+            return;
+        }
+        if (cmd.hasOption("virtual") && !VirtualThreadServer.isSupported()) {
+            System.out.println("VirtualThread architecture needs virtual threads, run it on JDK 21 or newer");
+            return;
+        }
+        serverConfig.setTransport(transport);
+        if (cmd.hasOption("cores")) {
+            serverConfig.setCores(Integer.parseInt(cmd.getOptionValue("cores")));
+        }
+        if (cmd.hasOption("inline")) {
+            serverConfig.setInlineThreshold(Integer.parseInt(cmd.getOptionValue("inline")));
+        }
+        if (cmd.hasOption("queue")) {
+            serverConfig.setQueueCapacity(Integer.parseInt(cmd.getOptionValue("queue")));
+        }
+        SortType sortType = SortType.INSERTION;
+        if (cmd.hasOption("sort")) {
+            sortType = SortType.valueOf(cmd.getOptionValue("sort").toUpperCase());
+        }
+        serverConfig.setSortEngine(sortEngines.get(sortType).get());
         Server server = null;
         ServerType serverType = ServerType.BLOCKING;
         if (cmd.hasOption("blocking")) {
-            server = servers.get(ServerType.BLOCKING);
+            server = servers.get(ServerType.BLOCKING).apply(serverConfig);
             serverType = ServerType.BLOCKING;
         } else if (cmd.hasOption("nonblocking")) {
-            server = servers.get(ServerType.NON_BLOCKING);
+            server = servers.get(ServerType.NON_BLOCKING).apply(serverConfig);
             serverType = ServerType.NON_BLOCKING;
+        } else if (cmd.hasOption("async")) {
+            server = servers.get(ServerType.ASYNC).apply(serverConfig);
+            serverType = ServerType.ASYNC;
+        } else if (cmd.hasOption("virtual")) {
+            server = servers.get(ServerType.VIRTUAL).apply(serverConfig);
+            serverType = ServerType.VIRTUAL;
+        } else if (cmd.hasOption("threadpercore")) {
+            server = servers.get(ServerType.THREAD_PER_CORE).apply(serverConfig);
+            serverType = ServerType.THREAD_PER_CORE;
         }
         Criteria criteria = Criteria.ARRAY_SIZE;
         int arraySize = 0;
         int clientNumber = 0;
         int sendingDelta = 0;
+        int rate = 0;
+        int batchSize = 1;
         int requests = Integer.parseInt(cmd.getOptionValue("requests"));
         if (cmd.getOptionValue("size").equals("test")) {
             criteria = Criteria.ARRAY_SIZE;
@@ -93,47 +214,127 @@ public class MainApp {
         } else {
             clientNumber = Integer.parseInt(cmd.getOptionValue("clients"));
         }
-        if (cmd.getOptionValue("delta").equals("test")) {
+        if (cmd.getOptionValue("delta", "0").equals("test")) {
             criteria = Criteria.SENDING_DELTA;
         } else {
-            sendingDelta = Integer.parseInt(cmd.getOptionValue("delta"));
+            sendingDelta = Integer.parseInt(cmd.getOptionValue("delta", "0"));
+        }
+        if (cmd.hasOption("rate")) {
+            if (cmd.getOptionValue("rate").equals("test")) {
+                criteria = Criteria.RATE;
+            } else {
+                rate = Integer.parseInt(cmd.getOptionValue("rate"));
+            }
+        }
+        if (cmd.getOptionValue("batch", "1").equals("test")) {
+            criteria = Criteria.BATCH;
+        } else {
+            batchSize = Integer.parseInt(cmd.getOptionValue("batch", "1"));
         }
         int lowerBound = Integer.parseInt(cmd.getOptionValue("start"));
         int upperBound = Integer.parseInt(cmd.getOptionValue("end"));
         int step = Integer.parseInt(cmd.getOptionValue("step"));
+        boolean nioClient = cmd.hasOption("nioclient");
+        int warmupRuns = Integer.parseInt(cmd.getOptionValue("warmup", "0"));
+        double steadyThreshold = Double.parseDouble(cmd.getOptionValue("steady", "0"));
+        int trials = Integer.parseInt(cmd.getOptionValue("trials", "1"));
+        boolean freshServer = cmd.hasOption("fresh");
         String resultDirectory = ".";
         if (cmd.hasOption("resdir")) {
             resultDirectory = cmd.getOptionValue("resdir");
         }
-        Map<Integer, Long> results = new TreeMap<>();
-        Server finalServer = server;
-        Thread serverThread = new Thread(() -> {
-            assert finalServer != null;
-            try {
-                finalServer.start();
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
-        });
-        serverThread.start();
-        Thread.sleep(Constants.SLEEP);
+        Map<Integer, Statistics> results = new TreeMap<>();
+        Map<Integer, ServerStatistics> serverResults = new TreeMap<>();
+        Map<Integer, Integer> warmupResults = new TreeMap<>();
+        Map<Integer, TrialStatistics> trialResults = new TreeMap<>();
+        Map<Integer, Double> throughputResults = new TreeMap<>();
+        startServer(server);
         for (int i = lowerBound; i <= upperBound; i += step) {
+            int pointArraySize = arraySize;
+            int pointClientNumber = clientNumber;
+            int pointSendingDelta = sendingDelta;
+            int pointRate = rate;
+            int pointBatchSize = batchSize;
             switch (criteria) {
                 case CLIENT_NUMBER:
-                    results.put(i, new ClientRunner(arraySize, requests, i, sendingDelta).run().average());
+                    pointClientNumber = i;
                     break;
                 case ARRAY_SIZE:
-                    results.put(i, new ClientRunner(i, requests, clientNumber, sendingDelta).run().average());
+                    pointArraySize = i;
                     break;
                 case SENDING_DELTA:
-                    results.put(i, new ClientRunner(arraySize, requests, clientNumber, i).run().average());
+                    pointSendingDelta = i;
+                    break;
+                case RATE:
+                    pointRate = i;
+                    break;
+                case BATCH:
+                    pointBatchSize = i;
                     break;
             }
+            int warmupIterations = 0;
+            SteadyStateDetector steadyStateDetector = new SteadyStateDetector(steadyThreshold);
+            while (warmupIterations < warmupRuns
+                    || (steadyThreshold > 0 && !steadyStateDetector.isSteady() && warmupIterations < Constants.MAX_WARMUP_RUNS)) {
+                steadyStateDetector.add(createLoadGenerator(nioClient, socketProfile, transport, pointArraySize, requests, pointClientNumber,
+                        pointSendingDelta, pointRate, pointBatchSize).run().mean());
+                warmupIterations++;
+            }
+            warmupResults.put(i, warmupIterations);
+            Statistics pointStatistics = new Statistics();
+            ServerStatistics pointServerStatistics = new ServerStatistics();
+            TrialStatistics trialStatistics = new TrialStatistics();
+            boolean hasServerStatistics = false;
+            long elapsedTime = 0;
+            for (int trial = 0; trial < trials; trial++) {
+                if (freshServer && trial > 0) {
+                    stopServer(server);
+                    server = servers.get(serverType).apply(serverConfig);
+                    startServer(server);
+                }
+                server.resetStatistics();
+                long trialStart = System.nanoTime();
+                Statistics statistics = createLoadGenerator(nioClient, socketProfile, transport, pointArraySize, requests, pointClientNumber,
+                        pointSendingDelta, pointRate, pointBatchSize).run();
+                elapsedTime += System.nanoTime() - trialStart;
+                pointStatistics.add(statistics);
+                trialStatistics.add(statistics.mean());
+                ServerStatistics serverStatistics = server.resetStatistics();
+                if (serverStatistics != null) {
+                    pointServerStatistics.add(serverStatistics);
+                    hasServerStatistics = true;
+                }
+            }
+            results.put(i, pointStatistics);
+            trialResults.put(i, trialStatistics);
+            throughputResults.put(i, (double) pointClientNumber * requests * trials / elapsedTime * TimeUnit.SECONDS.toNanos(1));
+            if (hasServerStatistics) {
+                serverResults.put(i, pointServerStatistics);
+            }
         }
         Path dir = Files.createDirectories(Paths.get(resultDirectory));
-        String[] HEADERS = new String[2];
+        String[] HEADERS = new String[4 + Statistics.PERCENTILES.length + (trials > 1 ? TRIAL_HEADERS.length : 0)];
+        for (int i = 0; i < Statistics.PERCENTILES.length; i++) {
+            HEADERS[2 + i] = "P" + new DecimalFormat("0.#").format(Statistics.PERCENTILES[i]);
+        }
+        HEADERS[2 + Statistics.PERCENTILES.length] = "Max";
+        HEADERS[3 + Statistics.PERCENTILES.length] = "Throughput";
+        if (trials > 1) {
+            System.arraycopy(TRIAL_HEADERS, 0, HEADERS, 4 + Statistics.PERCENTILES.length, TRIAL_HEADERS.length);
+        }
         try (PrintStream description = new PrintStream(Files.newOutputStream(dir.resolve("description.txt")))) {
             description.println("In results.csv first column is value of criteria, second is average time of handle request on client side");
+            description.println("Next columns are percentiles and maximum of that time over all trials, all times are in milliseconds");
+            description.println("Throughput column is number of arrays sorted per second of client running time over all trials");
+            if (trials > 1) {
+                description.println("Last columns are mean and standard deviation of per-trial average times and bounds of its 95% confidence interval");
+            }
+            description.println("server.csv, if present, has mean, P50 and P99 in milliseconds of server side stages per criteria value:");
+            description.println("QueueWait from reading the request to a worker taking it, Sort from that to sorted array,");
+            description.println("Write from that to the last byte of response written, Total from reading the request to that");
+            if (criteria == Criteria.BATCH || batchSize > 1) {
+                description.println("A batch of arrays is one request for the server, its stages are recorded once per frame");
+            }
             switch (serverType) {
                 case BLOCKING:
                     description.println("Architecture = Blocking");
@@ -141,9 +342,33 @@ public class MainApp {
                     break;
                 case NON_BLOCKING:
                     description.println("Architecture = NonBlocking");
+                    description.println("Number of Reactors = " + serverConfig.getReactors());
+                    if (serverConfig.getInlineThreshold() > 0) {
+                        description.println("Inline Sort Threshold = " + serverConfig.getInlineThreshold());
+                    }
                     HEADERS[1] = "NonBlocking";
                     break;
+                case ASYNC:
+                    description.println("Architecture = Async");
+                    HEADERS[1] = "Async";
+                    break;
+                case VIRTUAL:
+                    description.println("Architecture = VirtualThread");
+                    HEADERS[1] = "VirtualThread";
+                    break;
+                case THREAD_PER_CORE:
+                    description.println("Architecture = ThreadPerCore");
+                    description.println("Number of Cores = " + serverConfig.getCores());
+                    HEADERS[1] = "ThreadPerCore";
+                    break;
+            }
+            description.println("Sort Engine = " + sortType);
+            if (serverConfig.getForkJoinThreshold() > 0) {
+                description.println("Fork Join Threshold = " + serverConfig.getForkJoinThreshold() + ", longer arrays are sorted by a parallel merge sort");
             }
+            description.println("Client Engine = " + (nioClient ? "Nio" : "ThreadPerClient"));
+            description.println("Transport = " + (transport == Transport.UNIX ? "Unix domain socket " + Constants.SOCKET_PATH : "TCP"));
+            socketProfile.print(description);
             description.println("Number of Requests = " + requests);
             switch (criteria) {
                 case ARRAY_SIZE:
@@ -164,19 +389,122 @@ public class MainApp {
                     description.println("Delta of Sending is testing criteria");
                     HEADERS[0] = "SendingDelta";
                     break;
+                case RATE:
+                    description.println("Size of Array = " + arraySize);
+                    description.println("Number of Clients = " + clientNumber);
+                    description.println("Open loop Rate is testing criteria, latency is measured from intended sending time");
+                    HEADERS[0] = "Rate";
+                    break;
+                case BATCH:
+                    description.println("Size of Array = " + arraySize);
+                    description.println("Number of Clients = " + clientNumber);
+                    description.println("Delta of Sending = " + sendingDelta + ", between frames");
+                    description.println("Batch Size is testing criteria, latency of every array is measured from sending its frame");
+                    HEADERS[0] = "BatchSize";
+                    break;
             }
+            if (criteria != Criteria.BATCH && batchSize > 1) {
+                description.println("Batch Size = " + batchSize + " arrays per frame, Delta of Sending is between frames");
+            }
+            if (criteria != Criteria.RATE && rate > 0) {
+                description.println("Open loop Rate = " + rate + " requests per second, latency is measured from intended sending time");
+            }
+            description.println("Number of Trials = " + trials + (freshServer ? ", each on a new server instance" : ""));
+            description.println("Warmup Runs = " + warmupRuns);
+            if (steadyThreshold > 0) {
+                description.println("Steady State Threshold = " + steadyThreshold + ", at most " + Constants.MAX_WARMUP_RUNS + " warmup runs");
+            }
+            for (Map.Entry<Integer, Integer> entry : warmupResults.entrySet()) {
+                description.println("Warmup Iterations for " + HEADERS[0] + " " + entry.getKey() + " = " + entry.getValue());
+            }
+            server.printMetrics(description);
         }
         FileWriter out = new FileWriter(Paths.get(dir.toString(), "results.csv").toString());
         try (CSVPrinter printer = new CSVPrinter(out, CSVFormat.DEFAULT
                 .withHeader(HEADERS))) {
-            results.forEach((criteriaValue, averageTime) -> {
+            results.forEach((criteriaValue, statistics) -> {
+                List<Object> record = new ArrayList<>();
+                record.add(criteriaValue);
+                record.add(statistics.average());
+                for (double percentile : Statistics.PERCENTILES) {
+                    record.add(statistics.percentile(percentile));
+                }
+                record.add(statistics.max());
+                record.add(throughputResults.get(criteriaValue));
+                if (trials > 1) {
+                    TrialStatistics trialStatistics = trialResults.get(criteriaValue);
+                    record.add(trialStatistics.mean());
+                    record.add(trialStatistics.stddev());
+                    record.add(trialStatistics.mean() - trialStatistics.confidenceInterval95());
+                    record.add(trialStatistics.mean() + trialStatistics.confidenceInterval95());
+                }
                 try {
-                    printer.printRecord(criteriaValue, averageTime);
+                    printer.printRecord(record);
                 } catch (IOException e) {
                     e.printStackTrace();
                 }
             });
         }
-        serverThread.interrupt();
+        if (!serverResults.isEmpty()) {
+            writeServerResults(dir, HEADERS[0], serverResults);
+        }
+        stopServer(server);
+    }
+
+    private static void startServer(Server server) throws IOException, InterruptedException {
+        server.start();
+        server.awaitReady();
+    }
+
+    private static void stopServer(Server server) throws IOException, InterruptedException {
+        server.stop();
+        if (!server.awaitTermination(Constants.SERVER_STOP_TIMEOUT, TimeUnit.MILLISECONDS)) {
+            System.err.println("Server did not stop in " + Constants.SERVER_STOP_TIMEOUT + " ms");
+        }
+    }
+
+    private static LoadGenerator createLoadGenerator(boolean nioClient, SocketProfile socketProfile, Transport transport,
+                                                     int arraySize, int requests, int clientNumber, int sendingDelta, int rate,
+                                                     int batchSize) {
+        if (nioClient) {
+            return new NioClientRunner(arraySize, requests, clientNumber, sendingDelta, rate)
+                    .setSocketProfile(socketProfile).setTransport(transport).setBatchSize(batchSize);
+        }
+        return new ClientRunner(arraySize, requests, clientNumber, sendingDelta, rate)
+                .setSocketProfile(socketProfile).setTransport(transport).setBatchSize(batchSize);
+    }
+
+    private static void writeServerResults(Path dir, String criteriaHeader, Map<Integer, ServerStatistics> serverResults) throws IOException {
+        List<String> headers = new ArrayList<>();
+        headers.add(criteriaHeader);
+        for (ServerStatistics.Stage stage : ServerStatistics.Stage.values()) {
+            String name = toCamelCase(stage.name());
+            headers.add(name + "Mean");
+            headers.add(name + "P50");
+            headers.add(name + "P99");
+        }
+        FileWriter out = new FileWriter(dir.resolve("server.csv").toString());
+        try (CSVPrinter printer = new CSVPrinter(out, CSVFormat.DEFAULT
+                .withHeader(headers.toArray(new String[0])))) {
+            for (Map.Entry<Integer, ServerStatistics> entry : serverResults.entrySet()) {
+                List<Object> record = new ArrayList<>();
+                record.add(entry.getKey());
+                for (ServerStatistics.Stage stage : ServerStatistics.Stage.values()) {
+                    Histogram histogram = entry.getValue().get(stage);
+                    record.add(histogram.mean() / 1e6);
+                    record.add(histogram.percentile(50) / 1e6);
+                    record.add(histogram.percentile(99) / 1e6);
+                }
+                printer.printRecord(record);
+            }
+        }
+    }
+
+    private static String toCamelCase(String name) {
+        StringBuilder result = new StringBuilder();
+        for (String word : name.split("_")) {
+            result.append(word.charAt(0)).append(word.substring(1).toLowerCase());
+        }
+        return result.toString();
     }
 }
@@ -1,10 +1,13 @@
 package ru.hse.comparison.client;
 
-import ru.hse.comparison.Constants;
 import ru.hse.comparison.statistics.Statistics;
+import ru.hse.comparison.util.IntArrayBuffer;
+import ru.hse.comparison.util.IntArrayCodec;
+import ru.hse.comparison.util.SocketProfile;
+import ru.hse.comparison.util.Transport;
 import ru.hse.comparison.util.Utils;
 
-import java.net.Socket;
+import java.nio.channels.SocketChannel;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
@@ -13,14 +16,20 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+public class ClientRunner implements LoadGenerator {
+    private static final long OPEN_LOOP_START_DELAY = TimeUnit.MILLISECONDS.toNanos(100);
 
-public class ClientRunner {
     private final int sizeArray;
     private final int numberRequests;
     private final int numberClients;
     private final int deltaSending;
+    private final int requestsPerSecond;
+    private SocketProfile socketProfile = new SocketProfile();
+    private Transport transport = Transport.TCP;
+    private int batchSize = 1;
 
     private final ExecutorService clientPool = Executors.newCachedThreadPool();
 
@@ -29,14 +38,47 @@ public class ClientRunner {
     private volatile boolean anyFinished = false;
 
     public ClientRunner(int sizeArray, int numberRequests, int numberClients, int deltaSending) {
+        this(sizeArray, numberRequests, numberClients, deltaSending, 0);
+    }
+
+    /**
+     * If {@code requestsPerSecond} is positive clients work in open loop: requests are sent at
+     * precomputed moments giving that aggregate rate and {@code deltaSending} is ignored, latency
+     * is measured from the moment a request was intended to be sent.
+     */
+    public ClientRunner(int sizeArray, int numberRequests, int numberClients, int deltaSending, int requestsPerSecond) {
         this.sizeArray = sizeArray;
         this.numberRequests = numberRequests;
         this.numberClients = numberClients;
         this.deltaSending = deltaSending;
+        this.requestsPerSecond = requestsPerSecond;
         sendingTime = new long[numberClients][numberRequests];
     }
 
+    public ClientRunner setSocketProfile(SocketProfile socketProfile) {
+        this.socketProfile = socketProfile;
+        return this;
+    }
+
+    public ClientRunner setTransport(Transport transport) {
+        this.transport = transport;
+        return this;
+    }
+
+    /**
+     * Number of arrays packed into one frame, {@code numberRequests} still counts arrays and
+     * {@code deltaSending} becomes the delay between frames.
+     */
+    public ClientRunner setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    @Override
     public Statistics run() throws ExecutionException, InterruptedException {
+        if (isOpenLoop()) {
+            scheduleOpenLoop(sendingTime, requestsPerSecond);
+        }
         List<Future<Void>> futures = new ArrayList<>();
         for (int i = 0; i < numberClients; ++i) {
             //System.out.println("Client accepted");
@@ -59,22 +101,46 @@ public class ClientRunner {
 
         @Override
         public Void call() throws Exception {
-            try (Socket socket = new Socket(Constants.HOST, Constants.PORT)) {
+            try (SocketChannel socketChannel = transport.openChannel()) {
+                socketProfile.apply(socketChannel);
+                socketChannel.connect(transport.serverAddress());
                 List<Future<Void>> futures = new ArrayList<>();
-                for (int i = 0; i < numberRequests; ++i) {
-                    List<Integer> data = generateArray();
-                    sendingTime[id][i] = System.currentTimeMillis();
-                    Utils.writeArray(socket.getOutputStream(), data);
-                    int finalI = i;
+                for (int i = 0; i < numberRequests; i += batchSize) {
+                    int count = Math.min(batchSize, numberRequests - i);
+                    List<IntArrayBuffer> batch = new ArrayList<>(count);
+                    for (int j = 0; j < count; ++j) {
+                        batch.add(generateArray().setId(i + j));
+                    }
+                    if (isOpenLoop()) {
+                        // the frame leaves when its last array is due, earlier arrays wait for it
+                        sleepUntil(sendingTime[id][i + count - 1]);
+                    } else {
+                        long now = System.nanoTime();
+                        for (int j = 0; j < count; ++j) {
+                            sendingTime[id][i + j] = now;
+                        }
+                    }
+                    if (batchSize == 1) {
+                        Utils.writeArray(socketChannel, batch.get(0));
+                    } else {
+                        Utils.writeBatch(socketChannel, batch);
+                    }
+                    // responses are matched by request id, the server may complete them in any order
                     futures.add(writeService.submit(() -> {
-                        List<Integer> result = Utils.readArray(socket.getInputStream());
-                        if (!anyFinished) {
-                            statistics.add(System.currentTimeMillis() - sendingTime[id][finalI]);
+                        byte[] message = Utils.readMessage(socketChannel);
+                        long received = System.nanoTime();
+                        if (IntArrayCodec.isBatch(message)) {
+                            for (IntArrayBuffer result : IntArrayCodec.parseBatch(message)) {
+                                recordLatency(result, received);
+                            }
+                        } else {
+                            recordLatency(IntArrayCodec.parse(message, IntArrayBuffer.local()), received);
                         }
-                        //checkData(data, result);
                         return null;
                     }));
-                    Thread.sleep(deltaSending);
+                    if (!isOpenLoop()) {
+                        Thread.sleep(deltaSending);
+                    }
                 }
                 for (Future<?> future : futures) {
                     future.get();
@@ -85,14 +151,46 @@ public class ClientRunner {
             }
             return null;
         }
+
+        private void recordLatency(IntArrayBuffer result, long received) {
+            if (!anyFinished) {
+                statistics.add(received - sendingTime[id][result.getId()]);
+            }
+        }
+    }
+
+    /**
+     * Fills intended sending times so that clients together send {@code requestsPerSecond} requests
+     * per second, request {@code i} of client {@code id} is the {@code i * clients + id}-th overall.
+     */
+    static void scheduleOpenLoop(long[][] sendingTime, int requestsPerSecond) {
+        long start = System.nanoTime() + OPEN_LOOP_START_DELAY;
+        double interval = (double) TimeUnit.SECONDS.toNanos(1) / requestsPerSecond;
+        int numberClients = sendingTime.length;
+        for (int id = 0; id < numberClients; ++id) {
+            for (int i = 0; i < sendingTime[id].length; ++i) {
+                sendingTime[id][i] = start + (long) (((long) i * numberClients + id) * interval);
+            }
+        }
+    }
+
+    private boolean isOpenLoop() {
+        return requestsPerSecond > 0;
+    }
+
+    private static void sleepUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
     }
 
-    private List<Integer> generateArray() {
+    private IntArrayBuffer generateArray() {
         Random r = new Random();
-        return IntStream.generate(r::nextInt).limit(sizeArray).boxed().collect(Collectors.toList());
+        return IntArrayBuffer.wrap(r.ints(sizeArray).toArray());
     }
 
-    private void checkData(List<Integer> data, List<Integer> sortedData) {
+    private void checkData(IntArrayBuffer data, IntArrayBuffer sortedData) {
         boolean isOk = data.size() == sortedData.size();
         for (int i = 1; i < sortedData.size(); i++) {
             if (sortedData.get(i - 1) > sortedData.get(i)) {
@@ -0,0 +1,13 @@
+package ru.hse.comparison.client;
+
+import ru.hse.comparison.statistics.Statistics;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+
+public interface LoadGenerator {
+    /**
+     * Runs all clients until every request is answered and returns client side latencies.
+     */
+    Statistics run() throws IOException, ExecutionException, InterruptedException;
+}
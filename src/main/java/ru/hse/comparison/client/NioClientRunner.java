@@ -0,0 +1,360 @@
+package ru.hse.comparison.client;
+
+import ru.hse.comparison.statistics.Statistics;
+import ru.hse.comparison.util.IntArrayBuffer;
+import ru.hse.comparison.util.IntArrayCodec;
+import ru.hse.comparison.util.SocketProfile;
+import ru.hse.comparison.util.Transport;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Load generator with the same semantics as {@link ClientRunner}, but all clients are driven by a
+ * few selector threads instead of two threads per client, so it can keep far more connections open.
+ */
+public class NioClientRunner implements LoadGenerator {
+    // clients are created up front, the buffer grows to the largest response it has to hold
+    private static final int INITIAL_READ_BUFFER_SIZE = 1 << 10;
+    private static final int MAX_PENDING_CONNECTS = 16;
+
+    private final int sizeArray;
+    private final int numberRequests;
+    private final int numberClients;
+    private final long deltaSending;
+    private final int requestsPerSecond;
+    private SocketProfile socketProfile = new SocketProfile();
+    private Transport transport = Transport.TCP;
+    private int batchSize = 1;
+
+    private final EventLoop[] eventLoops;
+    private final ExecutorService eventLoopService;
+
+    private final long[][] sendingTime;
+    private final Statistics statistics = new Statistics();
+    private final CountDownLatch finishedClients;
+    private final AtomicReference<IOException> failure = new AtomicReference<>();
+    private volatile boolean anyFinished = false;
+    private volatile boolean isWorking = true;
+
+    public NioClientRunner(int sizeArray, int numberRequests, int numberClients, int deltaSending, int requestsPerSecond) {
+        this(sizeArray, numberRequests, numberClients, deltaSending, requestsPerSecond,
+                Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+    }
+
+    public NioClientRunner(int sizeArray, int numberRequests, int numberClients, int deltaSending, int requestsPerSecond,
+                           int selectorThreads) {
+        this.sizeArray = sizeArray;
+        this.numberRequests = numberRequests;
+        this.numberClients = numberClients;
+        this.deltaSending = TimeUnit.MILLISECONDS.toNanos(deltaSending);
+        this.requestsPerSecond = requestsPerSecond;
+        eventLoops = new EventLoop[selectorThreads];
+        eventLoopService = Executors.newFixedThreadPool(selectorThreads);
+        sendingTime = new long[numberClients][numberRequests];
+        finishedClients = new CountDownLatch(numberClients);
+    }
+
+    public NioClientRunner setSocketProfile(SocketProfile socketProfile) {
+        this.socketProfile = socketProfile;
+        return this;
+    }
+
+    public NioClientRunner setTransport(Transport transport) {
+        this.transport = transport;
+        return this;
+    }
+
+    /**
+     * Number of arrays packed into one frame, see {@link ClientRunner#setBatchSize}.
+     */
+    public NioClientRunner setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    @Override
+    public Statistics run() throws IOException, InterruptedException {
+        if (isOpenLoop()) {
+            ClientRunner.scheduleOpenLoop(sendingTime, requestsPerSecond);
+        }
+        for (int i = 0; i < eventLoops.length; ++i) {
+            eventLoops[i] = new EventLoop(Selector.open());
+        }
+        for (int id = 0; id < numberClients; ++id) {
+            eventLoops[id % eventLoops.length].addClient(new Client(id));
+        }
+        for (EventLoop eventLoop : eventLoops) {
+            eventLoopService.submit(eventLoop);
+        }
+        finishedClients.await();
+        isWorking = false;
+        for (EventLoop eventLoop : eventLoops) {
+            eventLoop.selector.wakeup();
+        }
+        eventLoopService.shutdown();
+        eventLoopService.awaitTermination(1, TimeUnit.MINUTES);
+        // fails like ClientRunner, statistics of a run with a broken client would be misleading
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        return statistics;
+    }
+
+    /**
+     * Keeps the first error and stops the run without waiting for the other clients.
+     */
+    private void fail(IOException e) {
+        failure.compareAndSet(null, e);
+        while (finishedClients.getCount() > 0) {
+            finishedClients.countDown();
+        }
+    }
+
+    private boolean isOpenLoop() {
+        return requestsPerSecond > 0;
+    }
+
+    // in open loop a frame leaves when its last array is due
+    private int lastInBatch(int first) {
+        return Math.min(first + batchSize, numberRequests) - 1;
+    }
+
+    private class EventLoop implements Runnable {
+        private final Selector selector;
+
+        private final ConcurrentLinkedQueue<Client> newClients = new ConcurrentLinkedQueue<>();
+        private int pendingConnects = 0;
+
+        private final PriorityQueue<Client> waitingClients = new PriorityQueue<>(Comparator.comparingLong(client -> client.nextSendingTime));
+
+        private EventLoop(Selector selector) {
+            this.selector = selector;
+        }
+
+        public void addClient(Client client) {
+            newClients.add(client);
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            try (Selector ignored = selector) {
+                while (isWorking) {
+                    long now = System.nanoTime();
+                    while (!waitingClients.isEmpty() && waitingClients.peek().nextSendingTime <= now) {
+                        waitingClients.poll().send();
+                    }
+                    if (waitingClients.isEmpty()) {
+                        selector.select();
+                    } else {
+                        long timeout = TimeUnit.NANOSECONDS.toMillis(waitingClients.peek().nextSendingTime - now);
+                        selector.select(Math.max(1, timeout));
+                    }
+                    Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                    while (it.hasNext()) {
+                        SelectionKey selectionKey = it.next();
+                        it.remove();
+                        // the client may have been finished above after a failed send
+                        if (!selectionKey.isValid()) {
+                            continue;
+                        }
+                        Client client = (Client) selectionKey.attachment();
+                        try {
+                            if (selectionKey.isConnectable()) {
+                                client.finishConnect();
+                            }
+                            if (selectionKey.isValid() && selectionKey.isWritable()) {
+                                client.write();
+                            }
+                            if (selectionKey.isValid() && selectionKey.isReadable()) {
+                                client.read();
+                            }
+                        } catch (IOException e) {
+                            fail(e);
+                            client.finish();
+                        }
+                    }
+                    // connects are throttled, otherwise a storm of them overflows the server accept backlog;
+                    // started after the completed ones are handled, so slots of failed connects are reused
+                    // without waiting for another event
+                    while (pendingConnects < MAX_PENDING_CONNECTS && !newClients.isEmpty()) {
+                        pendingConnects++;
+                        newClients.poll().connect(this);
+                    }
+                }
+                for (SelectionKey key : selector.keys()) {
+                    ((Client) key.attachment()).finish();
+                }
+            } catch (IOException e) {
+                fail(e);
+            }
+        }
+    }
+
+    private class Client {
+        private final int id;
+
+        private EventLoop eventLoop;
+        private SocketChannel socketChannel;
+        private SelectionKey selectionKey;
+
+        private ByteBuffer writeBuf;
+        private ByteBuffer readBuf = ByteBuffer.allocate(INITIAL_READ_BUFFER_SIZE);
+        private final IntArrayBuffer receivedIds = new IntArrayBuffer();
+
+        private int sent = 0;
+        private int sending = 0;
+        private int received = 0;
+        private long nextSendingTime;
+        private boolean finished = false;
+
+        private Client(int id) {
+            this.id = id;
+        }
+
+        public void connect(EventLoop eventLoop) {
+            this.eventLoop = eventLoop;
+            try {
+                socketChannel = transport.openChannel();
+                socketChannel.configureBlocking(false);
+                socketProfile.apply(socketChannel);
+                boolean connected = socketChannel.connect(transport.serverAddress());
+                selectionKey = socketChannel.register(eventLoop.selector, SelectionKey.OP_CONNECT, this);
+                // Unix domain sockets connect immediately and never become ready for OP_CONNECT
+                if (connected) {
+                    finishConnect();
+                }
+            } catch (IOException e) {
+                fail(e);
+                eventLoop.pendingConnects--;
+                finish();
+            }
+        }
+
+        public void finishConnect() throws IOException {
+            eventLoop.pendingConnects--;
+            socketChannel.finishConnect();
+            selectionKey.interestOps(SelectionKey.OP_READ);
+            schedule(isOpenLoop() ? sendingTime[id][lastInBatch(0)] : System.nanoTime());
+        }
+
+        public void send() {
+            if (!socketChannel.isOpen()) {
+                return;
+            }
+            sending = lastInBatch(sent) + 1 - sent;
+            List<IntArrayBuffer> batch = new ArrayList<>(sending);
+            for (int i = 0; i < sending; ++i) {
+                batch.add(IntArrayBuffer.wrap(ThreadLocalRandom.current().ints(sizeArray).toArray()).setId(sent + i));
+            }
+            try {
+                if (batchSize == 1) {
+                    writeBuf = ByteBuffer.allocate(IntArrayCodec.frameSize(batch.get(0)));
+                    IntArrayCodec.writeFrame(batch.get(0), writeBuf);
+                } else {
+                    writeBuf = ByteBuffer.allocate(IntArrayCodec.batchFrameSize(batch));
+                    IntArrayCodec.writeBatchFrame(batch, writeBuf);
+                }
+                writeBuf.flip();
+                if (!isOpenLoop()) {
+                    long now = System.nanoTime();
+                    for (int i = 0; i < sending; ++i) {
+                        sendingTime[id][sent + i] = now;
+                    }
+                }
+                write();
+            } catch (IOException e) {
+                fail(e);
+                finish();
+            }
+        }
+
+        public void write() throws IOException {
+            socketChannel.write(writeBuf);
+            if (writeBuf.hasRemaining()) {
+                selectionKey.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                return;
+            }
+            selectionKey.interestOps(SelectionKey.OP_READ);
+            writeBuf = null;
+            sent += sending;
+            if (sent < numberRequests) {
+                schedule(isOpenLoop() ? sendingTime[id][lastInBatch(sent)] : System.nanoTime() + deltaSending);
+            }
+        }
+
+        public void read() throws IOException {
+            if (socketChannel.read(readBuf) < 0) {
+                throw new IOException("Server closed connection of client " + id);
+            }
+            readBuf.flip();
+            while (readBuf.remaining() >= Integer.BYTES
+                    && readBuf.remaining() >= Integer.BYTES + readBuf.getInt(readBuf.position())) {
+                int messageStart = readBuf.position() + Integer.BYTES;
+                int messageEnd = messageStart + readBuf.getInt(readBuf.position());
+                ByteBuffer message = readBuf.duplicate().position(messageStart).limit(messageEnd);
+                readBuf.position(messageEnd);
+                if (IntArrayCodec.isBatch(message)) {
+                    IntArrayCodec.parseBatchIds(message, receivedIds);
+                } else {
+                    receivedIds.clear();
+                    receivedIds.add(IntArrayCodec.parseId(message));
+                }
+                long now = System.nanoTime();
+                for (int i = 0; i < receivedIds.size(); ++i) {
+                    if (!anyFinished) {
+                        statistics.add(now - sendingTime[id][receivedIds.get(i)]);
+                    }
+                }
+                received += receivedIds.size();
+            }
+            int pendingFrameSize = readBuf.remaining() >= Integer.BYTES ? Integer.BYTES + readBuf.getInt(readBuf.position()) : 0;
+            readBuf.compact();
+            if (pendingFrameSize > readBuf.capacity()) {
+                readBuf.flip();
+                readBuf = ByteBuffer.allocate(pendingFrameSize).put(readBuf);
+            }
+            if (received == numberRequests) {
+                finish();
+            }
+        }
+
+        private void schedule(long sendingTime) {
+            nextSendingTime = sendingTime;
+            eventLoop.waitingClients.add(this);
+        }
+
+        // a failed connect or read may have closed the channel already, the client is still counted once
+        public void finish() {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            anyFinished = true;
+            try {
+                if (socketChannel != null) {
+                    socketChannel.close();
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            finishedClients.countDown();
+        }
+    }
+}
@@ -1,663 +0,0 @@
-// Generated by the protocol buffer compiler.  DO NOT EDIT!
-// source: IntArray.proto
-
-package ru.hse.comparison.protos;
-
-/**
- * Protobuf type {@code comparison.IntArray}
- */
-public final class IntArray extends
-    com.google.protobuf.GeneratedMessageV3 implements
-    // @@protoc_insertion_point(message_implements:comparison.IntArray)
-    IntArrayOrBuilder {
-private static final long serialVersionUID = 0L;
-  // Use IntArray.newBuilder() to construct.
-  private IntArray(com.google.protobuf.GeneratedMessageV3.Builder<?> builder) {
-    super(builder);
-  }
-  private IntArray() {
-    elem_ = emptyIntList();
-  }
-
-  @java.lang.Override
-  @SuppressWarnings({"unused"})
-  protected java.lang.Object newInstance(
-      UnusedPrivateParameter unused) {
-    return new IntArray();
-  }
-
-  @java.lang.Override
-  public final com.google.protobuf.UnknownFieldSet
-  getUnknownFields() {
-    return this.unknownFields;
-  }
-  private IntArray(
-      com.google.protobuf.CodedInputStream input,
-      com.google.protobuf.ExtensionRegistryLite extensionRegistry)
-      throws com.google.protobuf.InvalidProtocolBufferException {
-    this();
-    if (extensionRegistry == null) {
-      throw new java.lang.NullPointerException();
-    }
-    int mutable_bitField0_ = 0;
-    com.google.protobuf.UnknownFieldSet.Builder unknownFields =
-        com.google.protobuf.UnknownFieldSet.newBuilder();
-    try {
-      boolean done = false;
-      while (!done) {
-        int tag = input.readTag();
-        switch (tag) {
-          case 0:
-            done = true;
-            break;
-          case 8: {
-
-            size_ = input.readInt32();
-            break;
-          }
-          case 16: {
-            if (!((mutable_bitField0_ & 0x00000001) != 0)) {
-              elem_ = newIntList();
-              mutable_bitField0_ |= 0x00000001;
-            }
-            elem_.addInt(input.readInt32());
-            break;
-          }
-          case 18: {
-            int length = input.readRawVarint32();
-            int limit = input.pushLimit(length);
-            if (!((mutable_bitField0_ & 0x00000001) != 0) && input.getBytesUntilLimit() > 0) {
-              elem_ = newIntList();
-              mutable_bitField0_ |= 0x00000001;
-            }
-            while (input.getBytesUntilLimit() > 0) {
-              elem_.addInt(input.readInt32());
-            }
-            input.popLimit(limit);
-            break;
-          }
-          default: {
-            if (!parseUnknownField(
-                input, unknownFields, extensionRegistry, tag)) {
-              done = true;
-            }
-            break;
-          }
-        }
-      }
-    } catch (com.google.protobuf.InvalidProtocolBufferException e) {
-      throw e.setUnfinishedMessage(this);
-    } catch (java.io.IOException e) {
-      throw new com.google.protobuf.InvalidProtocolBufferException(
-          e).setUnfinishedMessage(this);
-    } finally {
-      if (((mutable_bitField0_ & 0x00000001) != 0)) {
-        elem_.makeImmutable(); // C
-      }
-      this.unknownFields = unknownFields.build();
-      makeExtensionsImmutable();
-    }
-  }
-  public static final com.google.protobuf.Descriptors.Descriptor
-      getDescriptor() {
-    return ru.hse.comparison.protos.Message.internal_static_comparison_IntArray_descriptor;
-  }
-
-  @java.lang.Override
-  protected com.google.protobuf.GeneratedMessageV3.FieldAccessorTable
-      internalGetFieldAccessorTable() {
-    return ru.hse.comparison.protos.Message.internal_static_comparison_IntArray_fieldAccessorTable
-        .ensureFieldAccessorsInitialized(
-            ru.hse.comparison.protos.IntArray.class, ru.hse.comparison.protos.IntArray.Builder.class);
-  }
-
-  public static final int SIZE_FIELD_NUMBER = 1;
-  private int size_;
-  /**
-   * <code>int32 size = 1;</code>
-   * @return The size.
-   */
-  @java.lang.Override
-  public int getSize() {
-    return size_;
-  }
-
-  public static final int ELEM_FIELD_NUMBER = 2;
-  private com.google.protobuf.Internal.IntList elem_;
-  /**
-   * <code>repeated int32 elem = 2;</code>
-   * @return A list containing the elem.
-   */
-  @java.lang.Override
-  public java.util.List<java.lang.Integer>
-      getElemList() {
-    return elem_;
-  }
-  /**
-   * <code>repeated int32 elem = 2;</code>
-   * @return The count of elem.
-   */
-  public int getElemCount() {
-    return elem_.size();
-  }
-  /**
-   * <code>repeated int32 elem = 2;</code>
-   * @param index The index of the element to return.
-   * @return The elem at the given index.
-   */
-  public int getElem(int index) {
-    return elem_.getInt(index);
-  }
-  private int elemMemoizedSerializedSize = -1;
-
-  private byte memoizedIsInitialized = -1;
-  @java.lang.Override
-  public final boolean isInitialized() {
-    byte isInitialized = memoizedIsInitialized;
-    if (isInitialized == 1) return true;
-    if (isInitialized == 0) return false;
-
-    memoizedIsInitialized = 1;
-    return true;
-  }
-
-  @java.lang.Override
-  public void writeTo(com.google.protobuf.CodedOutputStream output)
-                      throws java.io.IOException {
-    getSerializedSize();
-    if (size_ != 0) {
-      output.writeInt32(1, size_);
-    }
-    if (getElemList().size() > 0) {
-      output.writeUInt32NoTag(18);
-      output.writeUInt32NoTag(elemMemoizedSerializedSize);
-    }
-    for (int i = 0; i < elem_.size(); i++) {
-      output.writeInt32NoTag(elem_.getInt(i));
-    }
-    unknownFields.writeTo(output);
-  }
-
-  @java.lang.Override
-  public int getSerializedSize() {
-    int size = memoizedSize;
-    if (size != -1) return size;
-
-    size = 0;
-    if (size_ != 0) {
-      size += com.google.protobuf.CodedOutputStream
-        .computeInt32Size(1, size_);
-    }
-    {
-      int dataSize = 0;
-      for (int i = 0; i < elem_.size(); i++) {
-        dataSize += com.google.protobuf.CodedOutputStream
-          .computeInt32SizeNoTag(elem_.getInt(i));
-      }
-      size += dataSize;
-      if (!getElemList().isEmpty()) {
-        size += 1;
-        size += com.google.protobuf.CodedOutputStream
-            .computeInt32SizeNoTag(dataSize);
-      }
-      elemMemoizedSerializedSize = dataSize;
-    }
-    size += unknownFields.getSerializedSize();
-    memoizedSize = size;
-    return size;
-  }
-
-  @java.lang.Override
-  public boolean equals(final java.lang.Object obj) {
-    if (obj == this) {
-     return true;
-    }
-    if (!(obj instanceof ru.hse.comparison.protos.IntArray)) {
-      return super.equals(obj);
-    }
-    ru.hse.comparison.protos.IntArray other = (ru.hse.comparison.protos.IntArray) obj;
-
-    if (getSize()
-        != other.getSize()) return false;
-    if (!getElemList()
-        .equals(other.getElemList())) return false;
-    if (!unknownFields.equals(other.unknownFields)) return false;
-    return true;
-  }
-
-  @java.lang.Override
-  public int hashCode() {
-    if (memoizedHashCode != 0) {
-      return memoizedHashCode;
-    }
-    int hash = 41;
-    hash = (19 * hash) + getDescriptor().hashCode();
-    hash = (37 * hash) + SIZE_FIELD_NUMBER;
-    hash = (53 * hash) + getSize();
-    if (getElemCount() > 0) {
-      hash = (37 * hash) + ELEM_FIELD_NUMBER;
-      hash = (53 * hash) + getElemList().hashCode();
-    }
-    hash = (29 * hash) + unknownFields.hashCode();
-    memoizedHashCode = hash;
-    return hash;
-  }
-
-  public static ru.hse.comparison.protos.IntArray parseFrom(
-      java.nio.ByteBuffer data)
-      throws com.google.protobuf.InvalidProtocolBufferException {
-    return PARSER.parseFrom(data);
-  }
-  public static ru.hse.comparison.protos.IntArray parseFrom(
-      java.nio.ByteBuffer data,
-      com.google.protobuf.ExtensionRegistryLite extensionRegistry)
-      throws com.google.protobuf.InvalidProtocolBufferException {
-    return PARSER.parseFrom(data, extensionRegistry);
-  }
-  public static ru.hse.comparison.protos.IntArray parseFrom(
-      com.google.protobuf.ByteString data)
-      throws com.google.protobuf.InvalidProtocolBufferException {
-    return PARSER.parseFrom(data);
-  }
-  public static ru.hse.comparison.protos.IntArray parseFrom(
-      com.google.protobuf.ByteString data,
-      com.google.protobuf.ExtensionRegistryLite extensionRegistry)
-      throws com.google.protobuf.InvalidProtocolBufferException {
-    return PARSER.parseFrom(data, extensionRegistry);
-  }
-  public static ru.hse.comparison.protos.IntArray parseFrom(byte[] data)
-      throws com.google.protobuf.InvalidProtocolBufferException {
-    return PARSER.parseFrom(data);
-  }
-  public static ru.hse.comparison.protos.IntArray parseFrom(
-      byte[] data,
-      com.google.protobuf.ExtensionRegistryLite extensionRegistry)
-      throws com.google.protobuf.InvalidProtocolBufferException {
-    return PARSER.parseFrom(data, extensionRegistry);
-  }
-  public static ru.hse.comparison.protos.IntArray parseFrom(java.io.InputStream input)
-      throws java.io.IOException {
-    return com.google.protobuf.GeneratedMessageV3
-        .parseWithIOException(PARSER, input);
-  }
-  public static ru.hse.comparison.protos.IntArray parseFrom(
-      java.io.InputStream input,
-      com.google.protobuf.ExtensionRegistryLite extensionRegistry)
-      throws java.io.IOException {
-    return com.google.protobuf.GeneratedMessageV3
-        .parseWithIOException(PARSER, input, extensionRegistry);
-  }
-  public static ru.hse.comparison.protos.IntArray parseDelimitedFrom(java.io.InputStream input)
-      throws java.io.IOException {
-    return com.google.protobuf.GeneratedMessageV3
-        .parseDelimitedWithIOException(PARSER, input);
-  }
-  public static ru.hse.comparison.protos.IntArray parseDelimitedFrom(
-      java.io.InputStream input,
-      com.google.protobuf.ExtensionRegistryLite extensionRegistry)
-      throws java.io.IOException {
-    return com.google.protobuf.GeneratedMessageV3
-        .parseDelimitedWithIOException(PARSER, input, extensionRegistry);
-  }
-  public static ru.hse.comparison.protos.IntArray parseFrom(
-      com.google.protobuf.CodedInputStream input)
-      throws java.io.IOException {
-    return com.google.protobuf.GeneratedMessageV3
-        .parseWithIOException(PARSER, input);
-  }
-  public static ru.hse.comparison.protos.IntArray parseFrom(
-      com.google.protobuf.CodedInputStream input,
-      com.google.protobuf.ExtensionRegistryLite extensionRegistry)
-      throws java.io.IOException {
-    return com.google.protobuf.GeneratedMessageV3
-        .parseWithIOException(PARSER, input, extensionRegistry);
-  }
-
-  @java.lang.Override
-  public Builder newBuilderForType() { return newBuilder(); }
-  public static Builder newBuilder() {
-    return DEFAULT_INSTANCE.toBuilder();
-  }
-  public static Builder newBuilder(ru.hse.comparison.protos.IntArray prototype) {
-    return DEFAULT_INSTANCE.toBuilder().mergeFrom(prototype);
-  }
-  @java.lang.Override
-  public Builder toBuilder() {
-    return this == DEFAULT_INSTANCE
-        ? new Builder() : new Builder().mergeFrom(this);
-  }
-
-  @java.lang.Override
-  protected Builder newBuilderForType(
-      com.google.protobuf.GeneratedMessageV3.BuilderParent parent) {
-    Builder builder = new Builder(parent);
-    return builder;
-  }
-  /**
-   * Protobuf type {@code comparison.IntArray}
-   */
-  public static final class Builder extends
-      com.google.protobuf.GeneratedMessageV3.Builder<Builder> implements
-      // @@protoc_insertion_point(builder_implements:comparison.IntArray)
-      ru.hse.comparison.protos.IntArrayOrBuilder {
-    public static final com.google.protobuf.Descriptors.Descriptor
-        getDescriptor() {
-      return ru.hse.comparison.protos.Message.internal_static_comparison_IntArray_descriptor;
-    }
-
-    @java.lang.Override
-    protected com.google.protobuf.GeneratedMessageV3.FieldAccessorTable
-        internalGetFieldAccessorTable() {
-      return ru.hse.comparison.protos.Message.internal_static_comparison_IntArray_fieldAccessorTable
-          .ensureFieldAccessorsInitialized(
-              ru.hse.comparison.protos.IntArray.class, ru.hse.comparison.protos.IntArray.Builder.class);
-    }
-
-    // Construct using ru.hse.comparison.protos.IntArray.newBuilder()
-    private Builder() {
-      maybeForceBuilderInitialization();
-    }
-
-    private Builder(
-        com.google.protobuf.GeneratedMessageV3.BuilderParent parent) {
-      super(parent);
-      maybeForceBuilderInitialization();
-    }
-    private void maybeForceBuilderInitialization() {
-      if (com.google.protobuf.GeneratedMessageV3
-              .alwaysUseFieldBuilders) {
-      }
-    }
-    @java.lang.Override
-    public Builder clear() {
-      super.clear();
-      size_ = 0;
-
-      elem_ = emptyIntList();
-      bitField0_ = (bitField0_ & ~0x00000001);
-      return this;
-    }
-
-    @java.lang.Override
-    public com.google.protobuf.Descriptors.Descriptor
-        getDescriptorForType() {
-      return ru.hse.comparison.protos.Message.internal_static_comparison_IntArray_descriptor;
-    }
-
-    @java.lang.Override
-    public ru.hse.comparison.protos.IntArray getDefaultInstanceForType() {
-      return ru.hse.comparison.protos.IntArray.getDefaultInstance();
-    }
-
-    @java.lang.Override
-    public ru.hse.comparison.protos.IntArray build() {
-      ru.hse.comparison.protos.IntArray result = buildPartial();
-      if (!result.isInitialized()) {
-        throw newUninitializedMessageException(result);
-      }
-      return result;
-    }
-
-    @java.lang.Override
-    public ru.hse.comparison.protos.IntArray buildPartial() {
-      ru.hse.comparison.protos.IntArray result = new ru.hse.comparison.protos.IntArray(this);
-      int from_bitField0_ = bitField0_;
-      result.size_ = size_;
-      if (((bitField0_ & 0x00000001) != 0)) {
-        elem_.makeImmutable();
-        bitField0_ = (bitField0_ & ~0x00000001);
-      }
-      result.elem_ = elem_;
-      onBuilt();
-      return result;
-    }
-
-    @java.lang.Override
-    public Builder clone() {
-      return super.clone();
-    }
-    @java.lang.Override
-    public Builder setField(
-        com.google.protobuf.Descriptors.FieldDescriptor field,
-        java.lang.Object value) {
-      return super.setField(field, value);
-    }
-    @java.lang.Override
-    public Builder clearField(
-        com.google.protobuf.Descriptors.FieldDescriptor field) {
-      return super.clearField(field);
-    }
-    @java.lang.Override
-    public Builder clearOneof(
-        com.google.protobuf.Descriptors.OneofDescriptor oneof) {
-      return super.clearOneof(oneof);
-    }
-    @java.lang.Override
-    public Builder setRepeatedField(
-        com.google.protobuf.Descriptors.FieldDescriptor field,
-        int index, java.lang.Object value) {
-      return super.setRepeatedField(field, index, value);
-    }
-    @java.lang.Override
-    public Builder addRepeatedField(
-        com.google.protobuf.Descriptors.FieldDescriptor field,
-        java.lang.Object value) {
-      return super.addRepeatedField(field, value);
-    }
-    @java.lang.Override
-    public Builder mergeFrom(com.google.protobuf.Message other) {
-      if (other instanceof ru.hse.comparison.protos.IntArray) {
-        return mergeFrom((ru.hse.comparison.protos.IntArray)other);
-      } else {
-        super.mergeFrom(other);
-        return this;
-      }
-    }
-
-    public Builder mergeFrom(ru.hse.comparison.protos.IntArray other) {
-      if (other == ru.hse.comparison.protos.IntArray.getDefaultInstance()) return this;
-      if (other.getSize() != 0) {
-        setSize(other.getSize());
-      }
-      if (!other.elem_.isEmpty()) {
-        if (elem_.isEmpty()) {
-          elem_ = other.elem_;
-          bitField0_ = (bitField0_ & ~0x00000001);
-        } else {
-          ensureElemIsMutable();
-          elem_.addAll(other.elem_);
-        }
-        onChanged();
-      }
-      this.mergeUnknownFields(other.unknownFields);
-      onChanged();
-      return this;
-    }
-
-    @java.lang.Override
-    public final boolean isInitialized() {
-      return true;
-    }
-
-    @java.lang.Override
-    public Builder mergeFrom(
-        com.google.protobuf.CodedInputStream input,
-        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
-        throws java.io.IOException {
-      ru.hse.comparison.protos.IntArray parsedMessage = null;
-      try {
-        parsedMessage = PARSER.parsePartialFrom(input, extensionRegistry);
-      } catch (com.google.protobuf.InvalidProtocolBufferException e) {
-        parsedMessage = (ru.hse.comparison.protos.IntArray) e.getUnfinishedMessage();
-        throw e.unwrapIOException();
-      } finally {
-        if (parsedMessage != null) {
-          mergeFrom(parsedMessage);
-        }
-      }
-      return this;
-    }
-    private int bitField0_;
-
-    private int size_ ;
-    /**
-     * <code>int32 size = 1;</code>
-     * @return The size.
-     */
-    @java.lang.Override
-    public int getSize() {
-      return size_;
-    }
-    /**
-     * <code>int32 size = 1;</code>
-     * @param value The size to set.
-     * @return This builder for chaining.
-     */
-    public Builder setSize(int value) {
-      
-      size_ = value;
-      onChanged();
-      return this;
-    }
-    /**
-     * <code>int32 size = 1;</code>
-     * @return This builder for chaining.
-     */
-    public Builder clearSize() {
-      
-      size_ = 0;
-      onChanged();
-      return this;
-    }
-
-    private com.google.protobuf.Internal.IntList elem_ = emptyIntList();
-    private void ensureElemIsMutable() {
-      if (!((bitField0_ & 0x00000001) != 0)) {
-        elem_ = mutableCopy(elem_);
-        bitField0_ |= 0x00000001;
-       }
-    }
-    /**
-     * <code>repeated int32 elem = 2;</code>
-     * @return A list containing the elem.
-     */
-    public java.util.List<java.lang.Integer>
-        getElemList() {
-      return ((bitField0_ & 0x00000001) != 0) ?
-               java.util.Collections.unmodifiableList(elem_) : elem_;
-    }
-    /**
-     * <code>repeated int32 elem = 2;</code>
-     * @return The count of elem.
-     */
-    public int getElemCount() {
-      return elem_.size();
-    }
-    /**
-     * <code>repeated int32 elem = 2;</code>
-     * @param index The index of the element to return.
-     * @return The elem at the given index.
-     */
-    public int getElem(int index) {
-      return elem_.getInt(index);
-    }
-    /**
-     * <code>repeated int32 elem = 2;</code>
-     * @param index The index to set the value at.
-     * @param value The elem to set.
-     * @return This builder for chaining.
-     */
-    public Builder setElem(
-        int index, int value) {
-      ensureElemIsMutable();
-      elem_.setInt(index, value);
-      onChanged();
-      return this;
-    }
-    /**
-     * <code>repeated int32 elem = 2;</code>
-     * @param value The elem to add.
-     * @return This builder for chaining.
-     */
-    public Builder addElem(int value) {
-      ensureElemIsMutable();
-      elem_.addInt(value);
-      onChanged();
-      return this;
-    }
-    /**
-     * <code>repeated int32 elem = 2;</code>
-     * @param values The elem to add.
-     * @return This builder for chaining.
-     */
-    public Builder addAllElem(
-        java.lang.Iterable<? extends java.lang.Integer> values) {
-      ensureElemIsMutable();
-      com.google.protobuf.AbstractMessageLite.Builder.addAll(
-          values, elem_);
-      onChanged();
-      return this;
-    }
-    /**
-     * <code>repeated int32 elem = 2;</code>
-     * @return This builder for chaining.
-     */
-    public Builder clearElem() {
-      elem_ = emptyIntList();
-      bitField0_ = (bitField0_ & ~0x00000001);
-      onChanged();
-      return this;
-    }
-    @java.lang.Override
-    public final Builder setUnknownFields(
-        final com.google.protobuf.UnknownFieldSet unknownFields) {
-      return super.setUnknownFields(unknownFields);
-    }
-
-    @java.lang.Override
-    public final Builder mergeUnknownFields(
-        final com.google.protobuf.UnknownFieldSet unknownFields) {
-      return super.mergeUnknownFields(unknownFields);
-    }
-
-
-    // @@protoc_insertion_point(builder_scope:comparison.IntArray)
-  }
-
-  // @@protoc_insertion_point(class_scope:comparison.IntArray)
-  private static final ru.hse.comparison.protos.IntArray DEFAULT_INSTANCE;
-  static {
-    DEFAULT_INSTANCE = new ru.hse.comparison.protos.IntArray();
-  }
-
-  public static ru.hse.comparison.protos.IntArray getDefaultInstance() {
-    return DEFAULT_INSTANCE;
-  }
-
-  private static final com.google.protobuf.Parser<IntArray>
-      PARSER = new com.google.protobuf.AbstractParser<IntArray>() {
-    @java.lang.Override
-    public IntArray parsePartialFrom(
-        com.google.protobuf.CodedInputStream input,
-        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
-        throws com.google.protobuf.InvalidProtocolBufferException {
-      return new IntArray(input, extensionRegistry);
-    }
-  };
-
-  public static com.google.protobuf.Parser<IntArray> parser() {
-    return PARSER;
-  }
-
-  @java.lang.Override
-  public com.google.protobuf.Parser<IntArray> getParserForType() {
-    return PARSER;
-  }
-
-  @java.lang.Override
-  public ru.hse.comparison.protos.IntArray getDefaultInstanceForType() {
-    return DEFAULT_INSTANCE;
-  }
-
-}
-
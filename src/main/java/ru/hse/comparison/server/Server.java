@@ -1,7 +1,42 @@
 package ru.hse.comparison.server;
 
+import ru.hse.comparison.statistics.ServerStatistics;
+
 import java.io.IOException;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
 
 public interface Server {
+    /**
+     * Binds the server socket and starts serving clients on background threads, returns immediately.
+     */
     void start() throws IOException;
+
+    /**
+     * Blocks until the server accepts connections.
+     */
+    void awaitReady() throws InterruptedException;
+
+    /**
+     * Stops accepting connections, closes all clients and shuts down server threads without waiting for them.
+     */
+    void stop() throws IOException;
+
+    /**
+     * Waits for server threads to finish after {@link #stop}, returns false if the timeout elapsed first.
+     */
+    boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException;
+
+    /**
+     * Prints server side counters in the same "Name = value" form as description.txt.
+     */
+    default void printMetrics(PrintStream out) {}
+
+    /**
+     * Returns per-stage timings recorded since the previous call and starts recording new ones,
+     * null if the server does not record them.
+     */
+    default ServerStatistics resetStatistics() {
+        return null;
+    }
 }
@@ -0,0 +1,98 @@
+package ru.hse.comparison.server;
+
+import ru.hse.comparison.sort.SortEngine;
+import ru.hse.comparison.sort.impl.InsertionSortEngine;
+import ru.hse.comparison.util.SocketProfile;
+import ru.hse.comparison.util.Transport;
+
+public class ServerConfig {
+    private int reactors = 1;
+    private int cores = Runtime.getRuntime().availableProcessors();
+    private SortEngine sortEngine = new InsertionSortEngine();
+    private int queueCapacity = 1024;
+    private int forkJoinThreshold = 0;
+    private int inlineThreshold = 0;
+    private SocketProfile socketProfile = new SocketProfile();
+    private Transport transport = Transport.TCP;
+
+    public int getReactors() {
+        return reactors;
+    }
+
+    public ServerConfig setReactors(int reactors) {
+        this.reactors = reactors;
+        return this;
+    }
+
+    /**
+     * Number of event loops of ThreadPerCore architecture, number of processors by default.
+     */
+    public int getCores() {
+        return cores;
+    }
+
+    public ServerConfig setCores(int cores) {
+        this.cores = cores;
+        return this;
+    }
+
+    public SortEngine getSortEngine() {
+        return sortEngine;
+    }
+
+    public ServerConfig setSortEngine(SortEngine sortEngine) {
+        this.sortEngine = sortEngine;
+        return this;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public ServerConfig setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+        return this;
+    }
+
+    /**
+     * Arrays longer than this are split between ForkJoinPool workers, 0 keeps the fixed worker pool.
+     */
+    public int getForkJoinThreshold() {
+        return forkJoinThreshold;
+    }
+
+    public ServerConfig setForkJoinThreshold(int forkJoinThreshold) {
+        this.forkJoinThreshold = forkJoinThreshold;
+        return this;
+    }
+
+    /**
+     * Arrays of at most this size are sorted on the NonBlocking reactor thread, 0 disables it.
+     */
+    public int getInlineThreshold() {
+        return inlineThreshold;
+    }
+
+    public ServerConfig setInlineThreshold(int inlineThreshold) {
+        this.inlineThreshold = inlineThreshold;
+        return this;
+    }
+
+    public SocketProfile getSocketProfile() {
+        return socketProfile;
+    }
+
+    public ServerConfig setSocketProfile(SocketProfile socketProfile) {
+        this.socketProfile = socketProfile;
+        return this;
+    }
+
+    public Transport getTransport() {
+        return transport;
+    }
+
+    public ServerConfig setTransport(Transport transport) {
+        this.transport = transport;
+        return this;
+    }
+}
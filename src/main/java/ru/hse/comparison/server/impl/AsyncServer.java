@@ -0,0 +1,243 @@
+package ru.hse.comparison.server.impl;
+
+import ru.hse.comparison.Constants;
+import ru.hse.comparison.server.Server;
+import ru.hse.comparison.server.ServerConfig;
+import ru.hse.comparison.sort.SortEngine;
+import ru.hse.comparison.util.SocketProfile;
+import ru.hse.comparison.util.Utils;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousChannelGroup;
+import java.nio.channels.AsynchronousServerSocketChannel;
+import java.nio.channels.AsynchronousSocketChannel;
+import java.nio.channels.CompletionHandler;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class AsyncServer implements Server {
+    private static final int IO_THREADS = 2;
+
+    private AsynchronousChannelGroup channelGroup;
+    private AsynchronousServerSocketChannel serverSocket;
+    private final CountDownLatch ready = new CountDownLatch(1);
+
+    private final ExecutorService workerThreadPool;
+
+    private final SortEngine sortEngine;
+    private final SocketProfile socketProfile;
+
+    private volatile boolean isWorking = false;
+
+    private final ConcurrentHashMap.KeySetView<ClientData, Boolean> clients = ConcurrentHashMap.newKeySet();
+
+    public AsyncServer() {
+        this(new ServerConfig());
+    }
+
+    public AsyncServer(ServerConfig config) {
+        workerThreadPool = WorkerPools.newWorkerPool(config);
+        sortEngine = WorkerPools.sortEngine(config);
+        socketProfile = config.getSocketProfile();
+    }
+
+    @Override
+    public void start() throws IOException {
+        isWorking = true;
+        channelGroup = AsynchronousChannelGroup.withFixedThreadPool(IO_THREADS, Executors.defaultThreadFactory());
+        serverSocket = AsynchronousServerSocketChannel.open(channelGroup);
+        socketProfile.applyToServer(serverSocket);
+        serverSocket.bind(new InetSocketAddress(Constants.PORT), socketProfile.getBacklog());
+        serverSocket.accept(null, new ClientAcceptor(serverSocket));
+        ready.countDown();
+    }
+
+    @Override
+    public void awaitReady() throws InterruptedException {
+        ready.await();
+    }
+
+    @Override
+    public void stop() throws IOException {
+        isWorking = false;
+        serverSocket.close();
+        workerThreadPool.shutdown();
+        clients.forEach(ClientData::close);
+        channelGroup.shutdownNow();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        return workerThreadPool.awaitTermination(timeout, unit)
+                && channelGroup.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    private class ClientAcceptor implements CompletionHandler<AsynchronousSocketChannel, Void> {
+        private final AsynchronousServerSocketChannel serverSocketChannel;
+
+        private ClientAcceptor(AsynchronousServerSocketChannel serverSocketChannel) {
+            this.serverSocketChannel = serverSocketChannel;
+        }
+
+        @Override
+        public void completed(AsynchronousSocketChannel socketChannel, Void attachment) {
+            if (isWorking) {
+                serverSocketChannel.accept(null, this);
+            }
+            try {
+                socketProfile.apply(socketChannel);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            ClientData clientData = new ClientData(socketChannel);
+            clients.add(clientData);
+            clientData.readSize();
+        }
+
+        @Override
+        public void failed(Throwable exc, Void attachment) {
+            if (isWorking) {
+                exc.printStackTrace();
+                serverSocketChannel.accept(null, this);
+            }
+        }
+    }
+
+    private class ClientData {
+        private final AsynchronousSocketChannel socketChannel;
+
+        private final ByteBuffer sizeBuf = ByteBuffer.allocate(Integer.BYTES);
+        private ByteBuffer dataBuf = null;
+
+        private final ConcurrentLinkedQueue<ByteBuffer> buffersReadyToWrite = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean isWriting = new AtomicBoolean(false);
+
+        private final CompletionHandler<Integer, Void> readHandler = new CompletionHandler<>() {
+            @Override
+            public void completed(Integer result, Void attachment) {
+                if (result < 0) {
+                    close();
+                    return;
+                }
+                processRead();
+            }
+
+            @Override
+            public void failed(Throwable exc, Void attachment) {
+                if (isWorking) {
+                    exc.printStackTrace();
+                }
+                close();
+            }
+        };
+
+        private final CompletionHandler<Integer, ByteBuffer> writeHandler = new CompletionHandler<>() {
+            @Override
+            public void completed(Integer result, ByteBuffer buf) {
+                if (buf.hasRemaining()) {
+                    socketChannel.write(buf, buf, this);
+                } else {
+                    writeNext();
+                }
+            }
+
+            @Override
+            public void failed(Throwable exc, ByteBuffer buf) {
+                if (isWorking) {
+                    exc.printStackTrace();
+                }
+                close();
+            }
+        };
+
+        private ClientData(AsynchronousSocketChannel socketChannel) {
+            this.socketChannel = socketChannel;
+        }
+
+        public void readSize() {
+            socketChannel.read(sizeBuf, null, readHandler);
+        }
+
+        private void processRead() {
+            if (dataBuf != null) {
+                if (dataBuf.hasRemaining()) {
+                    socketChannel.read(dataBuf, null, readHandler);
+                    return;
+                }
+                workerThreadPool.submit(new Worker(this, dataBuf));
+                dataBuf = null;
+                readSize();
+            } else {
+                if (sizeBuf.hasRemaining()) {
+                    readSize();
+                    return;
+                }
+                sizeBuf.flip();
+                int currentMessageSize = sizeBuf.getInt();
+                sizeBuf.clear();
+                dataBuf = ByteBuffer.allocate(currentMessageSize);
+                socketChannel.read(dataBuf, null, readHandler);
+            }
+        }
+
+        public void addNewBuffer(ByteBuffer buf) {
+            buffersReadyToWrite.add(buf);
+            if (isWriting.compareAndSet(false, true)) {
+                writeNext();
+            }
+        }
+
+        // only one write may be pending on an asynchronous channel, so the next
+        // buffer is taken from the queue when the previous one is fully written
+        private void writeNext() {
+            ByteBuffer buf = buffersReadyToWrite.poll();
+            if (buf != null) {
+                socketChannel.write(buf, buf, writeHandler);
+                return;
+            }
+            isWriting.set(false);
+            if (!buffersReadyToWrite.isEmpty() && isWriting.compareAndSet(false, true)) {
+                writeNext();
+            }
+        }
+
+        public void close() {
+            clients.remove(this);
+            try {
+                socketChannel.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    public class Worker implements Runnable {
+        private final ClientData clientData;
+        private final ByteBuffer dataBuf;
+
+        public Worker(ClientData clientData, ByteBuffer dataBuf) {
+            this.clientData = clientData;
+            this.dataBuf = dataBuf;
+        }
+
+        @Override
+        public void run() {
+            ByteBuffer result;
+            try {
+                dataBuf.flip();
+                result = Utils.sortMessage(dataBuf, sortEngine, ByteBuffer::allocate);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            clientData.addNewBuffer(result);
+        }
+    }
+}
@@ -1,54 +1,119 @@
 package ru.hse.comparison.server.impl;
 
-import ru.hse.comparison.Constants;
 import ru.hse.comparison.server.Server;
+import ru.hse.comparison.server.ServerConfig;
+import ru.hse.comparison.sort.SortEngine;
+import ru.hse.comparison.statistics.ServerStatistics;
+import ru.hse.comparison.util.BoundedExecutor;
+import ru.hse.comparison.util.SocketProfile;
+import ru.hse.comparison.util.Transport;
 import ru.hse.comparison.util.Utils;
 
+import java.io.EOFException;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
-import java.net.ServerSocket;
-import java.net.Socket;
-import java.util.ArrayList;
-import java.util.List;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 public class BlockingServer implements Server {
     private final ExecutorService serverSocketService = Executors.newSingleThreadExecutor();
-    private final ExecutorService workerThreadPool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() - 2);
+    private final BoundedExecutor workerThreadPool;
+    private final ThreadFactory clientThreadFactory;
+    private final SortEngine sortEngine;
+    private final SocketProfile socketProfile;
+    private final Transport transport;
 
-    private volatile boolean isWorking = true;
+    private final CountDownLatch ready = new CountDownLatch(1);
+    private ServerSocketChannel serverSocket;
+
+    private volatile boolean isWorking = false;
+    private volatile ServerStatistics statistics = new ServerStatistics();
 
     private final ConcurrentHashMap.KeySetView<ClientData, Boolean> clients = ConcurrentHashMap.newKeySet();
 
+    public BlockingServer() {
+        this(new ServerConfig());
+    }
+
+    public BlockingServer(ServerConfig config) {
+        this(config, WorkerPools.newWorkerPool(config), Executors.defaultThreadFactory());
+    }
+
+    protected BlockingServer(ServerConfig config, ExecutorService workerThreadPool, ThreadFactory clientThreadFactory) {
+        this.workerThreadPool = new BoundedExecutor(workerThreadPool, config.getQueueCapacity());
+        this.clientThreadFactory = clientThreadFactory;
+        this.sortEngine = WorkerPools.sortEngine(config);
+        this.socketProfile = config.getSocketProfile();
+        this.transport = config.getTransport();
+    }
+
     @Override
     public void start() throws IOException {
-        ServerSocket serverSocket = new ServerSocket(Constants.PORT);
+        isWorking = true;
+        serverSocket = transport.openServerChannel();
+        socketProfile.applyToServer(serverSocket);
+        transport.bind(serverSocket, socketProfile.getBacklog());
         serverSocketService.submit(() -> acceptClients(serverSocket));
+    }
 
-        while (!Thread.interrupted());
+    @Override
+    public void awaitReady() throws InterruptedException {
+        ready.await();
+    }
 
+    @Override
+    public void stop() throws IOException {
         isWorking = false;
         serverSocket.close();
+        transport.unbind();
         workerThreadPool.shutdown();
         serverSocketService.shutdown();
         clients.forEach(ClientData::close);
     }
 
-    private void acceptClients(ServerSocket serverSocket) {
-        try (ServerSocket ignored = serverSocket) {
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        return serverSocketService.awaitTermination(timeout, unit)
+                && workerThreadPool.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void printMetrics(PrintStream out) {
+        out.println("Worker Queue Capacity = " + workerThreadPool.capacity());
+        out.println("Backpressure Events = " + workerThreadPool.backpressureEvents());
+    }
+
+    @Override
+    public ServerStatistics resetStatistics() {
+        ServerStatistics previous = statistics;
+        statistics = new ServerStatistics();
+        return previous;
+    }
+
+    private void acceptClients(ServerSocketChannel serverSocket) {
+        ready.countDown();
+        try (ServerSocketChannel ignored = serverSocket) {
             while (isWorking) {
                 try {
                     //System.out.println("Server started");
-                    Socket socket = serverSocket.accept();
+                    SocketChannel socketChannel = serverSocket.accept();
+                    socketProfile.apply(socketChannel);
                     //System.out.println("client accepted");
-                    ClientData clientData = new ClientData(socket);
+                    ClientData clientData = new ClientData(socketChannel);
                     clients.add(clientData);
                     clientData.processClient();
                 } catch (IOException e) {
-                    e.printStackTrace();
+                    if (isWorking) {
+                        e.printStackTrace();
+                    }
                 }
             }
         } catch (IOException e) {
@@ -56,51 +121,66 @@ public class BlockingServer implements Server {
         }
     }
 
+    // reads and writes go straight to the blocking channel: streams of Channels lock the channel
+    // for the whole blocking read, which would stall the writer of the same client
     private class ClientData {
-        private final Socket socket;
-        public final ExecutorService responseWriter = Executors.newSingleThreadExecutor();
-        public final ExecutorService requestReader = Executors.newSingleThreadExecutor();
-
-        private final InputStream inputStream;
-        private final OutputStream outputStream;
+        private final SocketChannel socketChannel;
+        public final ExecutorService responseWriter = Executors.newSingleThreadExecutor(clientThreadFactory);
+        public final ExecutorService requestReader = Executors.newSingleThreadExecutor(clientThreadFactory);
 
         private volatile boolean working = true;
 
-        private ClientData(Socket socket) throws IOException {
-            this.socket = socket;
-            inputStream = socket.getInputStream();
-            outputStream = socket.getOutputStream();
+        private ClientData(SocketChannel socketChannel) {
+            this.socketChannel = socketChannel;
         }
 
-        public void sendResponse(List<Integer> data) {
+        public void sendResponse(ByteBuffer response, long frameComplete, long workerStart, long sortEnd) {
             responseWriter.submit(() -> {
                 try {
-                    Utils.writeArray(outputStream, data);
+                    Utils.writeFully(socketChannel, response);
+                    statistics.record(frameComplete, workerStart, sortEnd, System.nanoTime());
                 } catch (IOException e) {
                     e.printStackTrace();
                 }
             });
         }
 
+        // the reader blocks while the worker queue is full, so the client is throttled by TCP flow control
         public void processClient() {
             requestReader.submit(() -> {
                 try {
                     while(working) {
-                        ArrayList<Integer> data = Utils.readArray(inputStream);
-                        workerThreadPool.submit(() -> sendResponse(Utils.sortArray(data)));
+                        byte[] data = Utils.readMessage(socketChannel);
+                        long frameComplete = System.nanoTime();
+                        workerThreadPool.submit(() -> {
+                            long workerStart = System.nanoTime();
+                            try {
+                                ByteBuffer response = Utils.sortMessage(ByteBuffer.wrap(data), sortEngine, ByteBuffer::allocate);
+                                sendResponse(response, frameComplete, workerStart, System.nanoTime());
+                            } catch (IOException e) {
+                                e.printStackTrace();
+                            }
+                        });
                     }
+                } catch (EOFException e) {
+                    close();
                 } catch (IOException e) {
-                    e.printStackTrace();
+                    if (working) {
+                        e.printStackTrace();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
                 }
             });
         }
 
         public void close() {
+            clients.remove(this);
             working = false;
             responseWriter.shutdown();
             requestReader.shutdown();
             try {
-                socket.close();
+                socketChannel.close();
             } catch (IOException e) {
                 e.printStackTrace();
             }
@@ -0,0 +1,159 @@
+package ru.hse.comparison.server.impl;
+
+import ru.hse.comparison.statistics.ServerStatistics;
+import ru.hse.comparison.util.DirectBufferPool;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+/**
+ * Frame accumulator and gathering writer of a non-blocking client socket, all buffers are taken
+ * from the pool of its owner and everything is touched by the owning selector thread only.
+ */
+final class FramedConnection {
+    private static final int MAX_GATHERED_BUFFERS = 64;
+    // idle clients hold a small buffer, it grows to the size of a pending frame and shrinks once it is drained
+    private static final int INITIAL_READ_BUFFER_SIZE = 1 << 10;
+
+    private final SocketChannel socketChannel;
+    private final DirectBufferPool bufferPool;
+
+    private ByteBuffer readBuf;
+
+    private final ArrayDeque<Response> pendingWrites = new ArrayDeque<>();
+    private final ByteBuffer[] gatheredBuffers = new ByteBuffer[MAX_GATHERED_BUFFERS];
+
+    FramedConnection(SocketChannel socketChannel, DirectBufferPool bufferPool) {
+        this.socketChannel = socketChannel;
+        this.bufferPool = bufferPool;
+        readBuf = bufferPool.acquire(INITIAL_READ_BUFFER_SIZE);
+    }
+
+    interface FrameHandler {
+        /**
+         * @param message body of a complete frame, valid only until the handler returns
+         */
+        void handle(ByteBuffer message) throws IOException;
+    }
+
+    /**
+     * Reads everything available from the socket and passes every complete frame to the handler,
+     * returns false if the client closed the connection.
+     */
+    boolean readFrames(FrameHandler handler) throws IOException {
+        boolean filled;
+        do {
+            if (socketChannel.read(readBuf) < 0) {
+                return false;
+            }
+            filled = !readBuf.hasRemaining();
+            extractFrames(handler);
+        } while (filled);
+        return true;
+    }
+
+    private void extractFrames(FrameHandler handler) throws IOException {
+        readBuf.flip();
+        int pendingFrameSize = 0;
+        while (readBuf.remaining() >= Integer.BYTES) {
+            int messageSize = readBuf.getInt(readBuf.position());
+            int messageStart = readBuf.position() + Integer.BYTES;
+            if (readBuf.remaining() < Integer.BYTES + messageSize) {
+                pendingFrameSize = Integer.BYTES + messageSize;
+                break;
+            }
+            handler.handle(readBuf.duplicate().position(messageStart).limit(messageStart + messageSize));
+            readBuf.position(messageStart + messageSize);
+        }
+        readBuf.compact();
+        if (pendingFrameSize > readBuf.capacity()) {
+            resize(pendingFrameSize);
+        } else if (readBuf.position() == 0 && readBuf.capacity() > INITIAL_READ_BUFFER_SIZE) {
+            resize(INITIAL_READ_BUFFER_SIZE);
+        }
+    }
+
+    private void resize(int size) {
+        ByteBuffer newBuf = bufferPool.acquire(size);
+        readBuf.flip();
+        newBuf.put(readBuf);
+        bufferPool.release(readBuf);
+        readBuf = newBuf;
+    }
+
+    void addResponse(Response response) {
+        pendingWrites.add(response);
+    }
+
+    boolean hasPendingWrites() {
+        return !pendingWrites.isEmpty();
+    }
+
+    /**
+     * Writes pending responses with gathering writes until the socket stops accepting data,
+     * records every completed one and returns true if nothing is left to write.
+     */
+    boolean processWrite(ServerStatistics statistics) throws IOException {
+        while (!pendingWrites.isEmpty()) {
+            int count = 0;
+            for (Response pending : pendingWrites) {
+                if (count == MAX_GATHERED_BUFFERS) {
+                    break;
+                }
+                gatheredBuffers[count++] = pending.buffer;
+            }
+            socketChannel.write(gatheredBuffers, 0, count);
+            Arrays.fill(gatheredBuffers, 0, count, null);
+            long written = System.nanoTime();
+            int completed = 0;
+            while (!pendingWrites.isEmpty() && !pendingWrites.peek().buffer.hasRemaining()) {
+                Response done = pendingWrites.poll();
+                statistics.record(done.frameComplete, done.workerStart, done.sortEnd, written);
+                bufferPool.release(done.buffer);
+                completed++;
+            }
+            if (completed < count) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Closes the socket and returns the read buffer and unwritten responses to the pool, may be called twice.
+     */
+    void close() {
+        try {
+            socketChannel.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        if (readBuf != null) {
+            bufferPool.release(readBuf);
+            readBuf = null;
+            pendingWrites.forEach(response -> bufferPool.release(response.buffer));
+            pendingWrites.clear();
+        }
+    }
+
+    static final class Response {
+        private final ByteBuffer buffer;
+        private final long frameComplete;
+        private final long workerStart;
+        private final long sortEnd;
+
+        Response(ByteBuffer buffer, long frameComplete, long workerStart, long sortEnd) {
+            this.buffer = buffer;
+            this.frameComplete = frameComplete;
+            this.workerStart = workerStart;
+            this.sortEnd = sortEnd;
+        }
+
+        ByteBuffer buffer() {
+            return buffer;
+        }
+    }
+}
@@ -1,120 +1,248 @@
 package ru.hse.comparison.server.impl;
 
-import com.google.protobuf.InvalidProtocolBufferException;
-import ru.hse.comparison.Constants;
-import ru.hse.comparison.protos.IntArray;
 import ru.hse.comparison.server.Server;
+import ru.hse.comparison.server.ServerConfig;
+import ru.hse.comparison.server.impl.FramedConnection.Response;
+import ru.hse.comparison.sort.SortEngine;
+import ru.hse.comparison.statistics.ServerStatistics;
+import ru.hse.comparison.util.BoundedExecutor;
+import ru.hse.comparison.util.DirectBufferPool;
+import ru.hse.comparison.util.IntArrayCodec;
+import ru.hse.comparison.util.SocketProfile;
+import ru.hse.comparison.util.Transport;
 import ru.hse.comparison.util.Utils;
 
 import java.io.IOException;
-import java.net.InetSocketAddress;
+import java.io.PrintStream;
 import java.nio.ByteBuffer;
 import java.nio.channels.Selector;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.Set;
 import java.nio.channels.SelectionKey;
 
 public class NonBlockingServer implements Server {
-    private Selector readerSelector;
-    private Selector writerSelector;
+    private final Reactor[] reactors;
 
-    private final ExecutorService workerThreadPool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() - 2);
+    private final BoundedExecutor workerThreadPool;
     private final ExecutorService serverSocketService = Executors.newSingleThreadExecutor();
-    private final ExecutorService readerService = Executors.newSingleThreadExecutor();
-    private final ExecutorService writerService = Executors.newSingleThreadExecutor();
+    private final ExecutorService reactorService;
+    private final SortEngine sortEngine;
+    private final int inlineThreshold;
+    private final SocketProfile socketProfile;
+    private final Transport transport;
+    private final DirectBufferPool bufferPool = new DirectBufferPool();
 
-    private volatile boolean isWorking = false;
+    private final CountDownLatch ready = new CountDownLatch(1);
+    private ServerSocketChannel serverSocket;
 
-    private final ConcurrentLinkedQueue<ClientData> newClients = new ConcurrentLinkedQueue<>();
-    private final ConcurrentLinkedQueue<ClientData> clientsReadyWrite = new ConcurrentLinkedQueue<>();
+    private volatile boolean isWorking = false;
+    private volatile ServerStatistics statistics = new ServerStatistics();
+    private final LongAdder inlineRequests = new LongAdder();
 
     private final ConcurrentHashMap.KeySetView<NonBlockingServer.ClientData, Boolean> clients = ConcurrentHashMap.newKeySet();
 
+    public NonBlockingServer() {
+        this(new ServerConfig());
+    }
+
+    public NonBlockingServer(ServerConfig config) {
+        reactors = new Reactor[config.getReactors()];
+        reactorService = Executors.newFixedThreadPool(reactors.length);
+        sortEngine = WorkerPools.sortEngine(config);
+        inlineThreshold = config.getInlineThreshold();
+        socketProfile = config.getSocketProfile();
+        transport = config.getTransport();
+        workerThreadPool = new BoundedExecutor(WorkerPools.newWorkerPool(config), config.getQueueCapacity(), this::wakeupStalledReactors);
+    }
+
     @Override
     public void start() throws IOException {
         isWorking = true;
-        readerSelector = Selector.open();
-        writerSelector = Selector.open();
-        ServerSocketChannel serverSocket = ServerSocketChannel.open();
-        serverSocket.socket().bind(new InetSocketAddress(Constants.PORT));
+        for (int i = 0; i < reactors.length; i++) {
+            reactors[i] = new Reactor(Selector.open());
+        }
+        serverSocket = transport.openServerChannel();
+        socketProfile.applyToServer(serverSocket);
+        transport.bind(serverSocket, socketProfile.getBacklog());
+        for (Reactor reactor : reactors) {
+            reactorService.submit(reactor);
+        }
         serverSocketService.submit(new ClientAcceptor(serverSocket));
-        readerService.submit(new MessageReader());
-        writerService.submit(new MessageWriter());
+    }
 
-        while (!Thread.interrupted());
+    @Override
+    public void awaitReady() throws InterruptedException {
+        ready.await();
+    }
 
+    @Override
+    public void stop() throws IOException {
         isWorking = false;
-        readerService.shutdown();
-        writerService.shutdown();
-        readerSelector.close();
-        writerSelector.close();
         serverSocket.close();
+        transport.unbind();
+        for (Reactor reactor : reactors) {
+            reactor.selector.wakeup();
+        }
+        reactorService.shutdown();
         workerThreadPool.shutdown();
         serverSocketService.shutdown();
-        clients.forEach(ClientData::close);
     }
 
-    private class MessageReader implements Runnable {
-        @Override
-        public void run() {
-            while (isWorking) {
-                try {
-                    readerSelector.select();
-                    while(!newClients.isEmpty()) {
-                        ClientData clientData = newClients.poll();
-                        clientData.getSocketChannel().register(readerSelector, SelectionKey.OP_READ, clientData);
-                    }
-                    Set<SelectionKey> selectionKeys = readerSelector.selectedKeys();
-                    Iterator<SelectionKey> it = selectionKeys.iterator();
-                    while (it.hasNext()) {
-                        SelectionKey selectionKey = it.next();
-                        if (selectionKey.isReadable()) {
-                            ClientData clientData = (ClientData) selectionKey.attachment();
-                            clientData.processRead();
-                            it.remove();
-                        }
-                    }
-                } catch (IOException e) {
-                    e.printStackTrace();
-                }
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        return serverSocketService.awaitTermination(timeout, unit)
+                && reactorService.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)
+                && workerThreadPool.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void printMetrics(PrintStream out) {
+        out.println("Buffer Pool Hit Rate = " + bufferPool.hitRate());
+        out.println("Buffer Pool Outstanding Bytes = " + bufferPool.outstandingBytes());
+        out.println("Buffer Pool Retained Bytes = " + bufferPool.retainedBytes());
+        out.println("Worker Queue Capacity = " + workerThreadPool.capacity());
+        out.println("Backpressure Events = " + workerThreadPool.backpressureEvents());
+        out.println("Inline Requests = " + inlineRequests.sum());
+    }
+
+    @Override
+    public ServerStatistics resetStatistics() {
+        ServerStatistics previous = statistics;
+        statistics = new ServerStatistics();
+        return previous;
+    }
+
+    private void wakeupStalledReactors() {
+        for (Reactor reactor : reactors) {
+            if (reactor.hasStalledClients) {
+                reactor.selector.wakeup();
             }
         }
     }
 
-    private class MessageWriter implements Runnable {
+    /**
+     * Selector loop which owns both reads and writes of the clients assigned to it.
+     */
+    private class Reactor implements Runnable {
+        private final Selector selector;
+
+        private final ConcurrentLinkedQueue<ClientData> newClients = new ConcurrentLinkedQueue<>();
+        private final ConcurrentLinkedQueue<ClientData> clientsReadyWrite = new ConcurrentLinkedQueue<>();
+        private final ArrayDeque<ClientData> stalledClients = new ArrayDeque<>();
+
+        private volatile boolean hasStalledClients = false;
+
+        private Reactor(Selector selector) {
+            this.selector = selector;
+        }
+
+        public void addClient(ClientData clientData) {
+            newClients.add(clientData);
+            selector.wakeup();
+        }
+
+        public void addClientReadyWrite(ClientData clientData) {
+            clientsReadyWrite.add(clientData);
+            selector.wakeup();
+        }
+
+        /**
+         * Stops reading from the client until its pending batch is accepted by the worker queue.
+         */
+        public void stall(ClientData clientData) {
+            SelectionKey key = clientData.getSocketChannel().keyFor(selector);
+            key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+            stalledClients.add(clientData);
+            hasStalledClients = true;
+        }
+
+        // runs at the start of every iteration, so a slot freed after the flag is set always wakes the selector
+        private void resumeStalled() {
+            while (!stalledClients.isEmpty()) {
+                ClientData clientData = stalledClients.peek();
+                if (!clientData.resume()) {
+                    return;
+                }
+                stalledClients.poll();
+            }
+            hasStalledClients = false;
+        }
+
         @Override
         public void run() {
             while (isWorking) {
                 try {
-                    writerSelector.select();
-                    while(!clientsReadyWrite.isEmpty()) {
+                    resumeStalled();
+                    selector.select();
+                    while (!newClients.isEmpty()) {
+                        ClientData clientData = newClients.poll();
+                        clientData.getSocketChannel().register(selector, SelectionKey.OP_READ, clientData);
+                    }
+                    while (!clientsReadyWrite.isEmpty()) {
                         ClientData clientData = clientsReadyWrite.poll();
-                        clientData.getSocketChannel().register(writerSelector, SelectionKey.OP_WRITE, clientData);
+                        SelectionKey key = clientData.getSocketChannel().keyFor(selector);
+                        try {
+                            if (key != null && key.isValid() && !clientData.processWrite()) {
+                                key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+                            }
+                        } catch (IOException e) {
+                            e.printStackTrace();
+                            clientData.close();
+                        }
                     }
-                    Set<SelectionKey> selectionKeys = writerSelector.selectedKeys();
+                    Set<SelectionKey> selectionKeys = selector.selectedKeys();
                     Iterator<SelectionKey> it = selectionKeys.iterator();
                     while (it.hasNext()) {
                         SelectionKey selectionKey = it.next();
-                        if (selectionKey.isWritable()) {
-                            ClientData clientData = (ClientData) selectionKey.attachment();
-                            if (clientData.processWrite()) {
-                                clientData.getSocketChannel().keyFor(writerSelector).interestOps(0);
+                        it.remove();
+                        // the client may have been closed above after a failed write
+                        if (!selectionKey.isValid()) {
+                            continue;
+                        }
+                        ClientData clientData = (ClientData) selectionKey.attachment();
+                        try {
+                            if (selectionKey.isReadable()) {
+                                clientData.processRead();
+                            }
+                            if (selectionKey.isValid() && selectionKey.isWritable() && clientData.processWrite()) {
+                                selectionKey.interestOps(selectionKey.interestOps() & ~SelectionKey.OP_WRITE);
                             }
-                            it.remove();
+                        } catch (IOException | OutOfMemoryError e) {
+                            // a failed allocation of a larger read buffer drops the client, not the reactor
+                            e.printStackTrace();
+                            clientData.close();
                         }
                     }
                 } catch (IOException e) {
                     e.printStackTrace();
                 }
             }
+            // clients are closed by their own reactor, so their buffers are never touched by two threads
+            for (SelectionKey key : selector.keys()) {
+                ((ClientData) key.attachment()).close();
+            }
+            ClientData newClient;
+            while ((newClient = newClients.poll()) != null) {
+                newClient.close();
+            }
+            try {
+                selector.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
         }
     }
 
@@ -122,119 +250,219 @@ public class NonBlockingServer implements Server {
 
         private final ServerSocketChannel serverSocketChannel;
 
+        private int nextReactor = 0;
+
         private ClientAcceptor(ServerSocketChannel serverSocketChannel) {
             this.serverSocketChannel = serverSocketChannel;
         }
 
         @Override
         public void run() {
+            ready.countDown();
             try (ServerSocketChannel ignored = serverSocketChannel) {
                 while (isWorking) {
+                    SocketChannel socketChannel;
                     try {
-                        SocketChannel socketChannel = serverSocketChannel.accept();
-                        socketChannel.configureBlocking(false);
-                        ClientData clientData = new ClientData(socketChannel);
-                        clients.add(clientData);
-                        newClients.add(clientData);
-                        readerSelector.wakeup();
+                        socketChannel = serverSocketChannel.accept();
                     } catch (IOException e) {
+                        if (isWorking) {
+                            e.printStackTrace();
+                        }
+                        continue;
+                    }
+                    // a client which can not get its buffers is dropped, the others are still accepted
+                    try {
+                        addClient(socketChannel);
+                    } catch (IOException | OutOfMemoryError e) {
                         e.printStackTrace();
+                        try {
+                            socketChannel.close();
+                        } catch (IOException closeException) {
+                            closeException.printStackTrace();
+                        }
                     }
                 }
             } catch (IOException e) {
                 e.printStackTrace();
             }
         }
+
+        private void addClient(SocketChannel socketChannel) throws IOException {
+            socketChannel.configureBlocking(false);
+            socketProfile.apply(socketChannel);
+            Reactor reactor = reactors[nextReactor];
+            nextReactor = (nextReactor + 1) % reactors.length;
+            ClientData clientData = new ClientData(socketChannel, reactor);
+            clients.add(clientData);
+            reactor.addClient(clientData);
+        }
     }
 
     private class ClientData {
         private final SocketChannel socketChannel;
+        private final Reactor reactor;
+        private final FramedConnection connection;
 
-        private final ByteBuffer sizeBuf = ByteBuffer.allocate(Integer.BYTES);
-        private ByteBuffer dataBuf = null;
-
-        private final ConcurrentLinkedQueue<ByteBuffer> buffersReadyToWrite = new ConcurrentLinkedQueue<>();
-        private ByteBuffer currentWriteBuffer;
+        private final ConcurrentLinkedQueue<Response> buffersReadyToWrite = new ConcurrentLinkedQueue<>();
 
-        private int currentMessageSize = 0;
-        private int currentDataBufSize = 0;
-        private int currentSizeBufSize = 0;
+        private Worker stalledWorker = null;
 
-        private ClientData(SocketChannel socketChannel) {
+        private ClientData(SocketChannel socketChannel, Reactor reactor) {
             this.socketChannel = socketChannel;
+            this.reactor = reactor;
+            connection = new FramedConnection(socketChannel, bufferPool);
         }
 
+        /**
+         * Reads everything available from the socket and submits all complete frames as one batch.
+         * Small arrays are sorted right here and their responses are written without waking the selector.
+         */
         public void processRead() throws IOException {
-            if (dataBuf != null) {
-                currentDataBufSize += socketChannel.read(dataBuf);
-                if (currentDataBufSize == currentMessageSize) {
-                    workerThreadPool.submit(new Worker(this, dataBuf));
-                    dataBuf = null;
-                    currentDataBufSize = 0;
-                    currentMessageSize = 0;
+            List<ByteBuffer> requests = new ArrayList<>();
+            // extracted requests are owned by nobody until submitted, so they are released on failure
+            try {
+                if (!connection.readFrames(message -> handleFrame(message, requests))) {
+                    requests.forEach(bufferPool::release);
+                    close();
+                    return;
                 }
-            } else {
-                currentSizeBufSize += socketChannel.read(sizeBuf);
-                if (currentSizeBufSize == Integer.BYTES) {
-                    sizeBuf.flip();
-                    currentMessageSize = sizeBuf.getInt();
-                    sizeBuf.clear();
-                    currentSizeBufSize = 0;
-                    dataBuf = ByteBuffer.allocate(currentMessageSize);
+                if (connection.hasPendingWrites() && !processWrite()) {
+                    SelectionKey key = socketChannel.keyFor(reactor.selector);
+                    key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
                 }
+            } catch (IOException | OutOfMemoryError e) {
+                requests.forEach(bufferPool::release);
+                throw e;
             }
+            if (!requests.isEmpty()) {
+                Worker worker = new Worker(this, requests, System.nanoTime());
+                if (!workerThreadPool.trySubmit(worker)) {
+                    workerThreadPool.recordBackpressure();
+                    stalledWorker = worker;
+                    reactor.stall(this);
+                }
+            }
+        }
+
+        /**
+         * Submits the stalled batch and resumes reading, returns false if the worker queue is still full.
+         */
+        public boolean resume() {
+            SelectionKey key = socketChannel.keyFor(reactor.selector);
+            if (key == null || !key.isValid()) {
+                releaseStalledWorker();
+                return true;
+            }
+            if (!workerThreadPool.trySubmit(stalledWorker)) {
+                return false;
+            }
+            stalledWorker = null;
+            key.interestOps(key.interestOps() | SelectionKey.OP_READ);
+            return true;
         }
 
+        /**
+         * Sorts a small array inline or copies the frame out of the read buffer for the workers.
+         */
+        private void handleFrame(ByteBuffer message, List<ByteBuffer> requests) throws IOException {
+            int declaredSize = inlineThreshold > 0 ? IntArrayCodec.declaredSize(message) : -1;
+            if (declaredSize >= 0 && declaredSize <= inlineThreshold) {
+                sortInline(message);
+                return;
+            }
+            ByteBuffer request = bufferPool.acquire(message.remaining());
+            request.put(message);
+            request.flip();
+            requests.add(request);
+        }
+
+        private void sortInline(ByteBuffer message) throws IOException {
+            long frameComplete = System.nanoTime();
+            ByteBuffer result = Utils.sortMessage(message, sortEngine, bufferPool::acquire);
+            long sortEnd = System.nanoTime();
+            connection.addResponse(new Response(result, frameComplete, frameComplete, sortEnd));
+            inlineRequests.increment();
+        }
+
+        /**
+         * Writes all ready responses with gathering writes until the socket stops accepting data.
+         * Returns true if nothing is left to write.
+         */
         public boolean processWrite() throws IOException {
-            if (currentWriteBuffer == null || currentWriteBuffer.position() == currentWriteBuffer.capacity()) {
-                currentWriteBuffer = buffersReadyToWrite.poll();
+            Response response;
+            while ((response = buffersReadyToWrite.poll()) != null) {
+                connection.addResponse(response);
             }
-            socketChannel.write(currentWriteBuffer);
-            return buffersReadyToWrite.isEmpty();
+            return connection.processWrite(statistics);
         }
 
-        public void addNewBuffer(ByteBuffer buf) {
-            buffersReadyToWrite.add(buf);
+        public void addNewBuffers(List<Response> responses) {
+            buffersReadyToWrite.addAll(responses);
+            // responses added after the client was closed would never be written or released otherwise
+            if (!socketChannel.isOpen()) {
+                releaseReadyToWrite();
+                return;
+            }
+            reactor.addClientReadyWrite(this);
         }
 
         public SocketChannel getSocketChannel() {
             return socketChannel;
         }
 
+        /**
+         * Closes the socket and returns all buffers of the client to the pool, runs on its reactor thread.
+         */
         public void close() {
-            try {
-                socketChannel.close();
-            } catch (IOException e) {
-                e.printStackTrace();
+            connection.close();
+            if (clients.remove(this)) {
+                releaseStalledWorker();
+            }
+            releaseReadyToWrite();
+        }
+
+        private void releaseStalledWorker() {
+            if (stalledWorker != null) {
+                stalledWorker.requests.forEach(bufferPool::release);
+                stalledWorker = null;
+            }
+        }
+
+        // the channel is closed before this is called, so a worker adding responses later releases them itself
+        private void releaseReadyToWrite() {
+            Response response;
+            while ((response = buffersReadyToWrite.poll()) != null) {
+                bufferPool.release(response.buffer());
             }
         }
     }
 
     public class Worker implements Runnable {
         private final ClientData clientData;
-        private final ByteBuffer dataBuf;
+        private final List<ByteBuffer> requests;
+        private final long frameComplete;
 
-        public Worker(ClientData clientData, ByteBuffer dataBuf) {
+        public Worker(ClientData clientData, List<ByteBuffer> requests, long frameComplete) {
             this.clientData = clientData;
-            this.dataBuf = dataBuf;
+            this.requests = requests;
+            this.frameComplete = frameComplete;
         }
 
         @Override
         public void run() {
-            ArrayList<Integer> array;
+            List<Response> results = new ArrayList<>(requests.size());
             try {
-                array = new ArrayList<>(IntArray.parseFrom(dataBuf.array()).getElemList());
-            } catch (InvalidProtocolBufferException e) {
+                for (ByteBuffer dataBuf : requests) {
+                    long workerStart = System.nanoTime();
+                    ByteBuffer result = Utils.sortMessage(dataBuf, sortEngine, bufferPool::acquire);
+                    long sortEnd = System.nanoTime();
+                    bufferPool.release(dataBuf);
+                    results.add(new Response(result, frameComplete, workerStart, sortEnd));
+                }
+            } catch (IOException e) {
                 throw new RuntimeException(e);
             }
-            List<Integer> sortArray = Utils.sortArray(array);
-            byte[] resultMessage = IntArray.newBuilder().setSize(sortArray.size()).addAllElem(sortArray).build().toByteArray();
-            byte[] sizeBuf = ByteBuffer.allocate(Integer.BYTES).putInt(resultMessage.length).array();
-            ByteBuffer result = ByteBuffer.allocate(sizeBuf.length + resultMessage.length).put(sizeBuf).put(resultMessage);
-            result.flip();
-            clientData.addNewBuffer(result);
-            clientsReadyWrite.add(clientData);
-            writerSelector.wakeup();
+            clientData.addNewBuffers(results);
         }
     }
 }
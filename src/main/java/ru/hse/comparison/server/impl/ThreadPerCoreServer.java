@@ -0,0 +1,262 @@
+package ru.hse.comparison.server.impl;
+
+import ru.hse.comparison.Constants;
+import ru.hse.comparison.server.Server;
+import ru.hse.comparison.server.ServerConfig;
+import ru.hse.comparison.server.impl.FramedConnection.Response;
+import ru.hse.comparison.sort.SortEngine;
+import ru.hse.comparison.statistics.ServerStatistics;
+import ru.hse.comparison.util.DirectBufferPool;
+import ru.hse.comparison.util.SocketProfile;
+import ru.hse.comparison.util.Utils;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shared-nothing server: every loop owns a server socket bound to the same port with SO_REUSEPORT,
+ * so the kernel spreads connections between loops, and accepts, reads, sorts and writes its clients
+ * on one thread without handing anything to other threads.
+ */
+public class ThreadPerCoreServer implements Server {
+    private final Loop[] loops;
+    private final ExecutorService loopService;
+    private final SortEngine sortEngine;
+    private final SocketProfile socketProfile;
+
+    private final CountDownLatch ready;
+
+    private volatile boolean isWorking = false;
+
+    public ThreadPerCoreServer() {
+        this(new ServerConfig());
+    }
+
+    public ThreadPerCoreServer(ServerConfig config) {
+        loops = new Loop[config.getCores()];
+        loopService = Executors.newFixedThreadPool(loops.length);
+        sortEngine = config.getSortEngine();
+        socketProfile = config.getSocketProfile();
+        ready = new CountDownLatch(loops.length);
+    }
+
+    @Override
+    public void start() throws IOException {
+        isWorking = true;
+        for (int i = 0; i < loops.length; i++) {
+            ServerSocketChannel serverSocket = ServerSocketChannel.open();
+            serverSocket.setOption(StandardSocketOptions.SO_REUSEPORT, true);
+            socketProfile.applyToServer(serverSocket);
+            serverSocket.bind(new InetSocketAddress(Constants.PORT), socketProfile.getBacklog());
+            serverSocket.configureBlocking(false);
+            loops[i] = new Loop(Selector.open(), serverSocket);
+        }
+        for (Loop loop : loops) {
+            loopService.submit(loop);
+        }
+    }
+
+    @Override
+    public void awaitReady() throws InterruptedException {
+        ready.await();
+    }
+
+    @Override
+    public void stop() {
+        isWorking = false;
+        for (Loop loop : loops) {
+            loop.selector.wakeup();
+        }
+        loopService.shutdown();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return loopService.awaitTermination(timeout, unit);
+    }
+
+    @Override
+    public void printMetrics(PrintStream out) {
+        long[] connections = new long[loops.length];
+        for (int i = 0; i < loops.length; i++) {
+            connections[i] = loops[i].acceptedClients;
+        }
+        out.println("Connections per Loop = " + Arrays.toString(connections));
+        out.println("Buffer Pool Hit Rate per Loop = "
+                + Arrays.toString(Arrays.stream(loops).mapToDouble(loop -> loop.bufferPool.hitRate()).toArray()));
+    }
+
+    @Override
+    public ServerStatistics resetStatistics() {
+        ServerStatistics merged = new ServerStatistics();
+        for (Loop loop : loops) {
+            if (loop == null) {
+                continue;
+            }
+            ServerStatistics previous = loop.statistics;
+            loop.statistics = new ServerStatistics();
+            merged.add(previous);
+        }
+        return merged;
+    }
+
+    /**
+     * Accept, read, sort and write loop of one core, nothing of it is touched by other threads
+     * except the counters read after the run.
+     */
+    private class Loop implements Runnable {
+        private final Selector selector;
+        private final ServerSocketChannel serverSocket;
+        // loops share the retention budget of one pool, so the server does not keep more memory than the others
+        private final DirectBufferPool bufferPool =
+                new DirectBufferPool(DirectBufferPool.DEFAULT_MAX_RETAINED_BYTES / loops.length);
+        // written by this loop only, merged with other loops when statistics are reset
+        private volatile ServerStatistics statistics = new ServerStatistics();
+
+        private volatile long acceptedClients = 0;
+
+        private Loop(Selector selector, ServerSocketChannel serverSocket) {
+            this.selector = selector;
+            this.serverSocket = serverSocket;
+        }
+
+        @Override
+        public void run() {
+            try {
+                serverSocket.register(selector, SelectionKey.OP_ACCEPT);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            ready.countDown();
+            while (isWorking) {
+                try {
+                    selector.select();
+                    Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                    while (it.hasNext()) {
+                        SelectionKey selectionKey = it.next();
+                        it.remove();
+                        if (selectionKey.isAcceptable()) {
+                            accept();
+                            continue;
+                        }
+                        ClientData clientData = (ClientData) selectionKey.attachment();
+                        try {
+                            if (selectionKey.isReadable()) {
+                                clientData.processRead();
+                            }
+                            if (selectionKey.isValid() && selectionKey.isWritable() && clientData.processWrite()) {
+                                selectionKey.interestOps(selectionKey.interestOps() & ~SelectionKey.OP_WRITE);
+                            }
+                        } catch (IOException | OutOfMemoryError e) {
+                            // a failed allocation of a larger read buffer drops the client, not the loop
+                            e.printStackTrace();
+                            clientData.close();
+                        }
+                    }
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+            close();
+        }
+
+        private void accept() throws IOException {
+            SocketChannel socketChannel;
+            while ((socketChannel = serverSocket.accept()) != null) {
+                // a client which can not get its buffers is dropped, the others are still accepted
+                try {
+                    addClient(socketChannel);
+                } catch (IOException | OutOfMemoryError e) {
+                    e.printStackTrace();
+                    try {
+                        socketChannel.close();
+                    } catch (IOException closeException) {
+                        closeException.printStackTrace();
+                    }
+                }
+            }
+        }
+
+        private void addClient(SocketChannel socketChannel) throws IOException {
+            socketChannel.configureBlocking(false);
+            socketProfile.apply(socketChannel);
+            ClientData clientData = new ClientData(socketChannel, this);
+            try {
+                clientData.key = socketChannel.register(selector, SelectionKey.OP_READ, clientData);
+            } catch (IOException e) {
+                clientData.close();
+                throw e;
+            }
+            acceptedClients++;
+        }
+
+        private void close() {
+            for (SelectionKey key : selector.keys()) {
+                if (key.attachment() instanceof ClientData) {
+                    ((ClientData) key.attachment()).close();
+                }
+            }
+            try {
+                serverSocket.close();
+                selector.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private class ClientData {
+        private final Loop loop;
+        private final FramedConnection connection;
+        private SelectionKey key;
+
+        private ClientData(SocketChannel socketChannel, Loop loop) {
+            this.loop = loop;
+            connection = new FramedConnection(socketChannel, loop.bufferPool);
+        }
+
+        /**
+         * Reads everything available, sorts every complete frame in place and writes the responses.
+         */
+        public void processRead() throws IOException {
+            if (!connection.readFrames(this::sortFrame)) {
+                close();
+                return;
+            }
+            if (connection.hasPendingWrites() && !processWrite()) {
+                key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+            }
+        }
+
+        private void sortFrame(ByteBuffer message) throws IOException {
+            long frameComplete = System.nanoTime();
+            ByteBuffer result = Utils.sortMessage(message, sortEngine, loop.bufferPool::acquire);
+            long sortEnd = System.nanoTime();
+            connection.addResponse(new Response(result, frameComplete, frameComplete, sortEnd));
+        }
+
+        /**
+         * Writes pending responses with gathering writes, returns true if nothing is left to write.
+         */
+        public boolean processWrite() throws IOException {
+            return connection.processWrite(loop.statistics);
+        }
+
+        public void close() {
+            connection.close();
+        }
+    }
+}
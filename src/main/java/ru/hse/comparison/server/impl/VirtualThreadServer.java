@@ -0,0 +1,50 @@
+package ru.hse.comparison.server.impl;
+
+import ru.hse.comparison.server.ServerConfig;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Blocking server in which per-client reader and writer and every sort task run on virtual threads.
+ * Virtual threads are looked up reflectively, so the class also loads on JDKs without them, but it
+ * can't be created there: a fallback to platform threads would measure an architecture of its own.
+ */
+public class VirtualThreadServer extends BlockingServer {
+    private static final String UNSUPPORTED = "Virtual threads are not supported by this JVM, JDK 21 or newer is required";
+
+    public VirtualThreadServer() {
+        this(new ServerConfig());
+    }
+
+    public VirtualThreadServer(ServerConfig config) {
+        super(config, newVirtualThreadPerTaskExecutor(), virtualThreadFactory());
+    }
+
+    public static boolean isSupported() {
+        try {
+            virtualThreadFactory();
+            return true;
+        } catch (UnsupportedOperationException e) {
+            return false;
+        }
+    }
+
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new UnsupportedOperationException(UNSUPPORTED, e);
+        }
+    }
+
+    private static ThreadFactory virtualThreadFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            return (ThreadFactory) Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            throw new UnsupportedOperationException(UNSUPPORTED, e);
+        }
+    }
+}
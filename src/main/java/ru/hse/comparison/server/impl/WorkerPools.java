@@ -0,0 +1,33 @@
+package ru.hse.comparison.server.impl;
+
+import ru.hse.comparison.server.ServerConfig;
+import ru.hse.comparison.sort.SortEngine;
+import ru.hse.comparison.sort.impl.ForkJoinSortEngine;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Creates sort workers of a server: a fixed thread pool by default, or a work-stealing ForkJoinPool
+ * which also runs the chunks of large arrays when fork join threshold is set.
+ */
+final class WorkerPools {
+    private WorkerPools() {
+    }
+
+    static ExecutorService newWorkerPool(ServerConfig config) {
+        int threads = Runtime.getRuntime().availableProcessors() - 2;
+        if (config.getForkJoinThreshold() > 0) {
+            return new ForkJoinPool(threads);
+        }
+        return Executors.newFixedThreadPool(threads);
+    }
+
+    static SortEngine sortEngine(ServerConfig config) {
+        if (config.getForkJoinThreshold() > 0) {
+            return new ForkJoinSortEngine(config.getSortEngine(), config.getForkJoinThreshold());
+        }
+        return config.getSortEngine();
+    }
+}
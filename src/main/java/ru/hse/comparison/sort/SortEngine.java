@@ -0,0 +1,8 @@
+package ru.hse.comparison.sort;
+
+public interface SortEngine {
+    /**
+     * Sorts first {@code size} elements of the array in place in ascending order.
+     */
+    void sort(int[] data, int size);
+}
@@ -0,0 +1,82 @@
+package ru.hse.comparison.sort.impl;
+
+import ru.hse.comparison.sort.SortEngine;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Parallel merge sort for arrays larger than the threshold, chunks of at most threshold elements
+ * are sorted by the underlying engine. Called from a ForkJoinPool thread the chunks are forked
+ * into that pool, so idle workers steal them, otherwise the common pool is used.
+ */
+public class ForkJoinSortEngine implements SortEngine {
+    private final SortEngine engine;
+    private final int threshold;
+
+    public ForkJoinSortEngine(SortEngine engine, int threshold) {
+        this.engine = engine;
+        this.threshold = threshold;
+    }
+
+    @Override
+    public void sort(int[] data, int size) {
+        if (size <= threshold) {
+            engine.sort(data, size);
+            return;
+        }
+        MergeSortTask task = new MergeSortTask(engine, threshold, data, new int[size], 0, size);
+        if (ForkJoinTask.inForkJoinPool()) {
+            task.invoke();
+        } else {
+            ForkJoinPool.commonPool().invoke(task);
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static class MergeSortTask extends RecursiveAction {
+        private final SortEngine engine;
+        private final int threshold;
+        private final int[] data;
+        private final int[] buffer;
+        private final int from;
+        private final int to;
+
+        private MergeSortTask(SortEngine engine, int threshold, int[] data, int[] buffer, int from, int to) {
+            this.engine = engine;
+            this.threshold = threshold;
+            this.data = data;
+            this.buffer = buffer;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= threshold) {
+                int[] chunk = Arrays.copyOfRange(data, from, to);
+                engine.sort(chunk, chunk.length);
+                System.arraycopy(chunk, 0, data, from, chunk.length);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new MergeSortTask(engine, threshold, data, buffer, from, mid),
+                    new MergeSortTask(engine, threshold, data, buffer, mid, to));
+            merge(mid);
+        }
+
+        private void merge(int mid) {
+            System.arraycopy(data, from, buffer, from, to - from);
+            int i = from;
+            int j = mid;
+            int k = from;
+            while (i < mid && j < to) {
+                data[k++] = buffer[i] <= buffer[j] ? buffer[i++] : buffer[j++];
+            }
+            System.arraycopy(buffer, i, data, k, mid - i);
+            System.arraycopy(buffer, j, data, k + mid - i, to - j);
+        }
+    }
+}
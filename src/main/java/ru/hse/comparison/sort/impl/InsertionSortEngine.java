@@ -0,0 +1,21 @@
+package ru.hse.comparison.sort.impl;
+
+import ru.hse.comparison.sort.SortEngine;
+
+/**
+ * Quadratic sort which is the baseline server workload.
+ */
+public class InsertionSortEngine implements SortEngine {
+    @Override
+    public void sort(int[] data, int size) {
+        for (int i = 1; i < size; ++i) {
+            for (int j = i; j > 0; --j) {
+                if (data[j] < data[j - 1]) {
+                    int tmp = data[j];
+                    data[j] = data[j - 1];
+                    data[j - 1] = tmp;
+                }
+            }
+        }
+    }
+}
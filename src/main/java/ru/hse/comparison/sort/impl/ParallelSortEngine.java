@@ -0,0 +1,12 @@
+package ru.hse.comparison.sort.impl;
+
+import ru.hse.comparison.sort.SortEngine;
+
+import java.util.Arrays;
+
+public class ParallelSortEngine implements SortEngine {
+    @Override
+    public void sort(int[] data, int size) {
+        Arrays.parallelSort(data, 0, size);
+    }
+}
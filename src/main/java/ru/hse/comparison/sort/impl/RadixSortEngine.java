@@ -0,0 +1,37 @@
+package ru.hse.comparison.sort.impl;
+
+import ru.hse.comparison.sort.SortEngine;
+
+import java.util.Arrays;
+
+/**
+ * LSD radix sort over four 8-bit digits, the sign bit is flipped so negative numbers come first.
+ */
+public class RadixSortEngine implements SortEngine {
+    private static final int BITS = 8;
+    private static final int RADIX = 1 << BITS;
+    private static final int MASK = RADIX - 1;
+
+    @Override
+    public void sort(int[] data, int size) {
+        int[] src = data;
+        int[] dst = new int[size];
+        int[] count = new int[RADIX];
+        for (int shift = 0; shift < Integer.SIZE; shift += BITS) {
+            int flip = shift == Integer.SIZE - BITS ? RADIX >> 1 : 0;
+            Arrays.fill(count, 0);
+            for (int i = 0; i < size; ++i) {
+                count[((src[i] >>> shift) & MASK) ^ flip]++;
+            }
+            for (int i = 1; i < RADIX; ++i) {
+                count[i] += count[i - 1];
+            }
+            for (int i = size - 1; i >= 0; --i) {
+                dst[--count[((src[i] >>> shift) & MASK) ^ flip]] = src[i];
+            }
+            int[] tmp = src;
+            src = dst;
+            dst = tmp;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package ru.hse.comparison.statistics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of non-negative values with logarithmic buckets, each power of two range is
+ * split into {@code 2^(SUB_BUCKET_BITS - 1)} linear sub-buckets, so relative error is below 1%.
+ */
+public class Histogram {
+    private static final int SUB_BUCKET_BITS = 8;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_HALF = SUB_BUCKET_COUNT >> 1;
+    private static final int BUCKET_COUNT = Long.SIZE - SUB_BUCKET_BITS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT * SUB_BUCKET_HALF + SUB_BUCKET_COUNT);
+    private final LongAdder totalCount = new LongAdder();
+    private final LongAdder totalSum = new LongAdder();
+    private final AtomicLong maxValue = new AtomicLong();
+
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts.incrementAndGet(index(value));
+        totalCount.increment();
+        totalSum.add(value);
+        maxValue.accumulateAndGet(value, Math::max);
+    }
+
+    /**
+     * Adds all values recorded by the other histogram.
+     */
+    public void add(Histogram other) {
+        for (int i = 0; i < counts.length(); i++) {
+            long count = other.counts.get(i);
+            if (count != 0) {
+                counts.addAndGet(i, count);
+            }
+        }
+        totalCount.add(other.totalCount.sum());
+        totalSum.add(other.totalSum.sum());
+        maxValue.accumulateAndGet(other.max(), Math::max);
+    }
+
+    public long count() {
+        return totalCount.sum();
+    }
+
+    public double mean() {
+        long count = count();
+        return count == 0 ? 0 : (double) totalSum.sum() / count;
+    }
+
+    public long max() {
+        return maxValue.get();
+    }
+
+    /**
+     * Returns the upper bound of the bucket containing the given percentile (0..100] of recorded values.
+     */
+    public long percentile(double percentile) {
+        long count = count();
+        if (count == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return Math.min(highestValue(i), max());
+            }
+        }
+        return max();
+    }
+
+    private static int index(long value) {
+        int bucket = Math.max(0, Long.SIZE - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS);
+        return bucket * SUB_BUCKET_HALF + (int) (value >>> bucket);
+    }
+
+    private static long highestValue(int index) {
+        int bucket = index < SUB_BUCKET_COUNT ? 0 : index / SUB_BUCKET_HALF - 1;
+        long subBucket = index - (long) bucket * SUB_BUCKET_HALF;
+        return ((subBucket + 1) << bucket) - 1;
+    }
+}
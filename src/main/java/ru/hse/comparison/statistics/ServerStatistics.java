@@ -0,0 +1,46 @@
+package ru.hse.comparison.statistics;
+
+import java.util.EnumMap;
+
+/**
+ * Server side breakdown of request handling time, all timestamps are {@link System#nanoTime()}.
+ */
+public class ServerStatistics {
+    public enum Stage {
+        QUEUE_WAIT,
+        SORT,
+        WRITE,
+        TOTAL
+    }
+
+    private final EnumMap<Stage, Histogram> stages = new EnumMap<>(Stage.class);
+
+    public ServerStatistics() {
+        for (Stage stage : Stage.values()) {
+            stages.put(stage, new Histogram());
+        }
+    }
+
+    /**
+     * @param frameComplete moment the whole request was read
+     * @param workerStart moment a worker took the request
+     * @param sortEnd moment the array was sorted and its response was framed
+     * @param written moment the last byte of the response was written to the socket
+     */
+    public void record(long frameComplete, long workerStart, long sortEnd, long written) {
+        stages.get(Stage.QUEUE_WAIT).record(workerStart - frameComplete);
+        stages.get(Stage.SORT).record(sortEnd - workerStart);
+        stages.get(Stage.WRITE).record(written - sortEnd);
+        stages.get(Stage.TOTAL).record(written - frameComplete);
+    }
+
+    public void add(ServerStatistics other) {
+        for (Stage stage : Stage.values()) {
+            stages.get(stage).add(other.get(stage));
+        }
+    }
+
+    public Histogram get(Stage stage) {
+        return stages.get(stage);
+    }
+}
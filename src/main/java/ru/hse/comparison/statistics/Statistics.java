@@ -1,17 +1,53 @@
 package ru.hse.comparison.statistics;
 
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client side latencies, safe to record from many client threads.
+ */
 public class Statistics {
-    private long sumTime = 0;
-    private long numberRequests = 0;
+    public static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final Histogram latencies = new Histogram();
+
+    public void add(long resultNanos) {
+        latencies.record(resultNanos);
+    }
 
-    public void add(long result) {
-        sumTime += result;
-        numberRequests++;
+    public void add(Statistics other) {
+        latencies.add(other.latencies);
     }
 
+    /**
+     * Average latency in milliseconds.
+     */
     public long average() {
-        //System.out.println(sumTime);
-        //System.out.println(numberRequests);
-        return sumTime / numberRequests;
+        return TimeUnit.NANOSECONDS.toMillis((long) latencies.mean());
+    }
+
+    /**
+     * Average latency in milliseconds without rounding.
+     */
+    public double mean() {
+        return toMillis((long) latencies.mean());
+    }
+
+    /**
+     * Latency of the given percentile in milliseconds.
+     */
+    public double percentile(double percentile) {
+        return toMillis(latencies.percentile(percentile));
+    }
+
+    public double max() {
+        return toMillis(latencies.max());
+    }
+
+    public long count() {
+        return latencies.count();
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1e6;
     }
 }
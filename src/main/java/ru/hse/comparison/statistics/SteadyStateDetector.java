@@ -0,0 +1,40 @@
+package ru.hse.comparison.statistics;
+
+import java.util.ArrayDeque;
+
+/**
+ * Decides that a warmup is over when mean latencies of the last few runs differ from each other
+ * by less than the given fraction of their average.
+ */
+public class SteadyStateDetector {
+    private static final int WINDOW = 3;
+
+    private final double threshold;
+    private final ArrayDeque<Double> means = new ArrayDeque<>();
+
+    public SteadyStateDetector(double threshold) {
+        this.threshold = threshold;
+    }
+
+    public void add(double mean) {
+        means.addLast(mean);
+        if (means.size() > WINDOW) {
+            means.removeFirst();
+        }
+    }
+
+    public boolean isSteady() {
+        if (means.size() < WINDOW) {
+            return false;
+        }
+        double min = Double.MAX_VALUE;
+        double max = 0;
+        double sum = 0;
+        for (double mean : means) {
+            min = Math.min(min, mean);
+            max = Math.max(max, mean);
+            sum += mean;
+        }
+        return max - min <= threshold * sum / means.size();
+    }
+}
@@ -0,0 +1,58 @@
+package ru.hse.comparison.statistics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Mean, sample standard deviation and Student's t 95% confidence interval of per-trial results.
+ */
+public class TrialStatistics {
+    private static final double[] T_975 = {
+            12.706, 4.303, 3.182, 2.776, 2.571, 2.447, 2.365, 2.306, 2.262, 2.228,
+            2.201, 2.179, 2.160, 2.145, 2.131, 2.120, 2.110, 2.101, 2.093, 2.086,
+            2.080, 2.074, 2.069, 2.064, 2.060, 2.056, 2.052, 2.048, 2.045, 2.042
+    };
+    private static final double Z_975 = 1.960;
+
+    private final List<Double> values = new ArrayList<>();
+
+    public void add(double value) {
+        values.add(value);
+    }
+
+    public int count() {
+        return values.size();
+    }
+
+    public double mean() {
+        double sum = 0;
+        for (double value : values) {
+            sum += value;
+        }
+        return values.isEmpty() ? 0 : sum / values.size();
+    }
+
+    public double stddev() {
+        if (values.size() < 2) {
+            return 0;
+        }
+        double mean = mean();
+        double sum = 0;
+        for (double value : values) {
+            sum += (value - mean) * (value - mean);
+        }
+        return Math.sqrt(sum / (values.size() - 1));
+    }
+
+    /**
+     * Half-width of the 95% confidence interval of the mean.
+     */
+    public double confidenceInterval95() {
+        int degrees = values.size() - 1;
+        if (degrees < 1) {
+            return 0;
+        }
+        double t = degrees <= T_975.length ? T_975[degrees - 1] : Z_975;
+        return t * stddev() / Math.sqrt(values.size());
+    }
+}
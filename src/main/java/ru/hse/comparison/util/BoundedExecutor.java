@@ -0,0 +1,95 @@
+package ru.hse.comparison.util;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Executor wrapper which limits the number of tasks queued or running at once, so that fast
+ * clients can not grow the work queue of an underlying executor without bound.
+ */
+public class BoundedExecutor {
+    private final ExecutorService executor;
+    private final int capacity;
+    private final Semaphore permits;
+    private final Runnable onRelease;
+
+    private final LongAdder backpressureEvents = new LongAdder();
+
+    public BoundedExecutor(ExecutorService executor, int capacity) {
+        this(executor, capacity, () -> {});
+    }
+
+    /**
+     * {@code onRelease} is called after every finished task, once its slot is free again.
+     */
+    public BoundedExecutor(ExecutorService executor, int capacity, Runnable onRelease) {
+        this.executor = executor;
+        this.capacity = capacity;
+        this.permits = new Semaphore(capacity);
+        this.onRelease = onRelease;
+    }
+
+    /**
+     * Submits task if there is a free slot, returns false otherwise.
+     */
+    public boolean trySubmit(Runnable task) {
+        if (!permits.tryAcquire()) {
+            return false;
+        }
+        execute(task);
+        return true;
+    }
+
+    /**
+     * Submits task, waiting for a free slot if the queue is full.
+     */
+    public void submit(Runnable task) throws InterruptedException {
+        if (!permits.tryAcquire()) {
+            backpressureEvents.increment();
+            permits.acquire();
+        }
+        execute(task);
+    }
+
+    /**
+     * Counts backpressure applied by the caller after a failed {@link #trySubmit}.
+     */
+    public void recordBackpressure() {
+        backpressureEvents.increment();
+    }
+
+    public long backpressureEvents() {
+        return backpressureEvents.sum();
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return executor.awaitTermination(timeout, unit);
+    }
+
+    private void execute(Runnable task) {
+        try {
+            executor.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    permits.release();
+                    onRelease.run();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package ru.hse.comparison.util;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pool of direct buffers split into power of two size classes. Buffers may be acquired and
+ * released from different threads, every acquired buffer must be released at most once.
+ */
+public class DirectBufferPool {
+    private static final int MIN_CLASS_SHIFT = 10;
+    private static final int MAX_CLASS_SHIFT = 26;
+    public static final long DEFAULT_MAX_RETAINED_BYTES = 256L << 20;
+
+    private final ConcurrentLinkedQueue<ByteBuffer>[] classes;
+    private final long maxRetainedBytes;
+
+    private final AtomicLong retainedBytes = new AtomicLong();
+    private final AtomicLong outstandingBytes = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public DirectBufferPool() {
+        this(DEFAULT_MAX_RETAINED_BYTES);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public DirectBufferPool(long maxRetainedBytes) {
+        this.maxRetainedBytes = maxRetainedBytes;
+        classes = new ConcurrentLinkedQueue[MAX_CLASS_SHIFT - MIN_CLASS_SHIFT + 1];
+        for (int i = 0; i < classes.length; i++) {
+            classes[i] = new ConcurrentLinkedQueue<>();
+        }
+    }
+
+    /**
+     * Returns cleared buffer with position 0 and limit {@code size}, its capacity may be larger.
+     */
+    public ByteBuffer acquire(int size) {
+        int sizeClass = sizeClass(size);
+        ByteBuffer buffer = null;
+        if (sizeClass < classes.length) {
+            buffer = classes[sizeClass].poll();
+        }
+        if (buffer != null) {
+            hits.increment();
+            retainedBytes.addAndGet(-buffer.capacity());
+        } else {
+            misses.increment();
+            buffer = ByteBuffer.allocateDirect(sizeClass < classes.length ? 1 << (sizeClass + MIN_CLASS_SHIFT) : size);
+        }
+        outstandingBytes.addAndGet(buffer.capacity());
+        buffer.clear().limit(size);
+        return buffer;
+    }
+
+    public void release(ByteBuffer buffer) {
+        outstandingBytes.addAndGet(-buffer.capacity());
+        int sizeClass = sizeClass(buffer.capacity());
+        if (sizeClass >= classes.length || retainedBytes.addAndGet(buffer.capacity()) > maxRetainedBytes) {
+            if (sizeClass < classes.length) {
+                retainedBytes.addAndGet(-buffer.capacity());
+            }
+            return;
+        }
+        buffer.clear();
+        classes[sizeClass].offer(buffer);
+    }
+
+    public double hitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    public long outstandingBytes() {
+        return outstandingBytes.get();
+    }
+
+    public long retainedBytes() {
+        return retainedBytes.get();
+    }
+
+    private static int sizeClass(int size) {
+        if (size <= 1 << MIN_CLASS_SHIFT) {
+            return 0;
+        }
+        return Integer.SIZE - Integer.numberOfLeadingZeros(size - 1) - MIN_CLASS_SHIFT;
+    }
+}
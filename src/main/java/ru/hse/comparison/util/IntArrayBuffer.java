@@ -0,0 +1,78 @@
+package ru.hse.comparison.util;
+
+import java.util.Arrays;
+
+/**
+ * Growable primitive array which is reused between requests handled by the same thread.
+ */
+public class IntArrayBuffer {
+    private static final int MIN_CAPACITY = 16;
+
+    private static final ThreadLocal<IntArrayBuffer> POOL = ThreadLocal.withInitial(IntArrayBuffer::new);
+
+    private int[] data;
+    private int size;
+    private int id;
+
+    public IntArrayBuffer() {
+        this(new int[MIN_CAPACITY], 0);
+    }
+
+    private IntArrayBuffer(int[] data, int size) {
+        this.data = data;
+        this.size = size;
+    }
+
+    /**
+     * Returns buffer of the current thread, it must not be passed to other threads.
+     */
+    public static IntArrayBuffer local() {
+        return POOL.get();
+    }
+
+    public static IntArrayBuffer wrap(int[] data) {
+        return new IntArrayBuffer(data, data.length);
+    }
+
+    public void clear() {
+        size = 0;
+        id = 0;
+    }
+
+    public void ensureCapacity(int capacity) {
+        if (data.length < capacity) {
+            data = Arrays.copyOf(data, capacity);
+        }
+    }
+
+    public void add(int value) {
+        if (size == data.length) {
+            data = Arrays.copyOf(data, Math.max(MIN_CAPACITY, size * 2));
+        }
+        data[size++] = value;
+    }
+
+    public int get(int index) {
+        return data[index];
+    }
+
+    public int[] data() {
+        return data;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Request id of the message, echoed in the response to it.
+     */
+    public int getId() {
+        return id;
+    }
+
+    public IntArrayBuffer setId(int id) {
+        this.id = id;
+        return this;
+    }
+}
@@ -0,0 +1,249 @@
+package ru.hse.comparison.util;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+import ru.hse.comparison.protos.IntArray;
+import ru.hse.comparison.protos.IntArrayBatch;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads and writes {@link IntArray} and {@link IntArrayBatch} messages straight from and to
+ * {@link IntArrayBuffer} without boxing.
+ */
+public class IntArrayCodec {
+    private static final int SIZE_TAG = (IntArray.SIZE_FIELD_NUMBER << 3) | WireFormat.WIRETYPE_VARINT;
+    private static final int ELEM_TAG = (IntArray.ELEM_FIELD_NUMBER << 3) | WireFormat.WIRETYPE_VARINT;
+    private static final int PACKED_ELEM_TAG = (IntArray.ELEM_FIELD_NUMBER << 3) | WireFormat.WIRETYPE_LENGTH_DELIMITED;
+    private static final int ID_TAG = (IntArray.ID_FIELD_NUMBER << 3) | WireFormat.WIRETYPE_VARINT;
+    private static final int ARRAYS_TAG =
+            (IntArrayBatch.ARRAYS_FIELD_NUMBER << 3) | WireFormat.WIRETYPE_LENGTH_DELIMITED;
+
+    public static IntArrayBuffer parse(CodedInputStream input, IntArrayBuffer result) throws IOException {
+        result.clear();
+        int tag;
+        while ((tag = input.readTag()) != 0) {
+            if (tag == SIZE_TAG) {
+                result.ensureCapacity(input.readInt32());
+            } else if (tag == PACKED_ELEM_TAG) {
+                int limit = input.pushLimit(input.readRawVarint32());
+                while (input.getBytesUntilLimit() > 0) {
+                    result.add(input.readInt32());
+                }
+                input.popLimit(limit);
+            } else if (tag == ELEM_TAG) {
+                result.add(input.readInt32());
+            } else if (tag == ID_TAG) {
+                result.setId(input.readInt32());
+            } else if (!input.skipField(tag)) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    public static IntArrayBuffer parse(byte[] message, IntArrayBuffer result) throws IOException {
+        return parse(CodedInputStream.newInstance(message), result);
+    }
+
+    /**
+     * Parses message between position and limit of the buffer, works for both heap and direct buffers.
+     */
+    public static IntArrayBuffer parse(ByteBuffer message, IntArrayBuffer result) throws IOException {
+        return parse(CodedInputStream.newInstance(message), result);
+    }
+
+    /**
+     * Returns array size written in the message if it starts with the size field, -1 otherwise.
+     * Position of the buffer is not changed.
+     */
+    public static int declaredSize(ByteBuffer message) throws IOException {
+        CodedInputStream input = CodedInputStream.newInstance(message.duplicate());
+        int tag = input.readTag();
+        if (tag == 0) {
+            return 0;
+        }
+        return tag == SIZE_TAG ? input.readInt32() : -1;
+    }
+
+    /**
+     * Returns request id of the message skipping its elements, position of the buffer is not changed.
+     */
+    public static int parseId(ByteBuffer message) throws IOException {
+        return parseId(CodedInputStream.newInstance(message.duplicate()));
+    }
+
+    private static int parseId(CodedInputStream input) throws IOException {
+        int tag;
+        while ((tag = input.readTag()) != 0) {
+            if (tag == ID_TAG) {
+                return input.readInt32();
+            }
+            if (!input.skipField(tag)) {
+                break;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Returns true if the message is {@link IntArrayBatch}, position of the buffer is not changed.
+     */
+    public static boolean isBatch(ByteBuffer message) throws IOException {
+        return CodedInputStream.newInstance(message.duplicate()).readTag() == ARRAYS_TAG;
+    }
+
+    public static boolean isBatch(byte[] message) throws IOException {
+        return CodedInputStream.newInstance(message).readTag() == ARRAYS_TAG;
+    }
+
+    /**
+     * Parses every array of the batch into its own buffer, as all of them are needed at once.
+     */
+    public static List<IntArrayBuffer> parseBatch(CodedInputStream input) throws IOException {
+        List<IntArrayBuffer> result = new ArrayList<>();
+        int tag;
+        while ((tag = input.readTag()) != 0) {
+            if (tag == ARRAYS_TAG) {
+                int limit = input.pushLimit(input.readRawVarint32());
+                result.add(parse(input, new IntArrayBuffer()));
+                input.popLimit(limit);
+            } else if (!input.skipField(tag)) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    public static List<IntArrayBuffer> parseBatch(byte[] message) throws IOException {
+        return parseBatch(CodedInputStream.newInstance(message));
+    }
+
+    public static List<IntArrayBuffer> parseBatch(ByteBuffer message) throws IOException {
+        return parseBatch(CodedInputStream.newInstance(message));
+    }
+
+    /**
+     * Adds request ids of the batch arrays to the result skipping their elements,
+     * position of the buffer is not changed.
+     */
+    public static IntArrayBuffer parseBatchIds(ByteBuffer message, IntArrayBuffer result) throws IOException {
+        result.clear();
+        CodedInputStream input = CodedInputStream.newInstance(message.duplicate());
+        int tag;
+        while ((tag = input.readTag()) != 0) {
+            if (tag == ARRAYS_TAG) {
+                int limit = input.pushLimit(input.readRawVarint32());
+                result.add(parseId(input));
+                input.skipRawBytes(input.getBytesUntilLimit());
+                input.popLimit(limit);
+            } else if (!input.skipField(tag)) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    public static int frameSize(IntArrayBuffer array) {
+        return Integer.BYTES + serializedSize(array);
+    }
+
+    /**
+     * Writes length prefix and message into the buffer at its position, buffer must have
+     * {@link #frameSize} bytes remaining.
+     */
+    public static void writeFrame(IntArrayBuffer array, ByteBuffer buffer) throws IOException {
+        buffer.putInt(serializedSize(array));
+        CodedOutputStream output = CodedOutputStream.newInstance(buffer);
+        serialize(array, output);
+        output.flush();
+    }
+
+    /**
+     * Returns length prefix and message in one array, so the frame can be sent with a single write.
+     */
+    public static byte[] toFrame(IntArrayBuffer array) throws IOException {
+        byte[] frame = new byte[frameSize(array)];
+        writeFrame(array, ByteBuffer.wrap(frame));
+        return frame;
+    }
+
+    public static int batchFrameSize(List<IntArrayBuffer> arrays) {
+        return Integer.BYTES + batchSerializedSize(arrays);
+    }
+
+    /**
+     * Writes length prefix and batch of the arrays into the buffer at its position, buffer must have
+     * {@link #batchFrameSize} bytes remaining.
+     */
+    public static void writeBatchFrame(List<IntArrayBuffer> arrays, ByteBuffer buffer) throws IOException {
+        buffer.putInt(batchSerializedSize(arrays));
+        CodedOutputStream output = CodedOutputStream.newInstance(buffer);
+        for (IntArrayBuffer array : arrays) {
+            output.writeTag(IntArrayBatch.ARRAYS_FIELD_NUMBER, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+            output.writeUInt32NoTag(serializedSize(array));
+            serialize(array, output);
+        }
+        output.flush();
+    }
+
+    public static byte[] toBatchFrame(List<IntArrayBuffer> arrays) throws IOException {
+        byte[] frame = new byte[batchFrameSize(arrays)];
+        writeBatchFrame(arrays, ByteBuffer.wrap(frame));
+        return frame;
+    }
+
+    public static int batchSerializedSize(List<IntArrayBuffer> arrays) {
+        int size = 0;
+        for (IntArrayBuffer array : arrays) {
+            int arraySize = serializedSize(array);
+            size += CodedOutputStream.computeTagSize(IntArrayBatch.ARRAYS_FIELD_NUMBER)
+                    + CodedOutputStream.computeUInt32SizeNoTag(arraySize) + arraySize;
+        }
+        return size;
+    }
+
+    public static int serializedSize(IntArrayBuffer array) {
+        int size = 0;
+        if (array.size() != 0) {
+            size += CodedOutputStream.computeInt32Size(IntArray.SIZE_FIELD_NUMBER, array.size());
+            int elemSize = elemSize(array);
+            size += CodedOutputStream.computeTagSize(IntArray.ELEM_FIELD_NUMBER)
+                    + CodedOutputStream.computeUInt32SizeNoTag(elemSize) + elemSize;
+        }
+        if (array.getId() != 0) {
+            size += CodedOutputStream.computeInt32Size(IntArray.ID_FIELD_NUMBER, array.getId());
+        }
+        return size;
+    }
+
+    public static void serialize(IntArrayBuffer array, CodedOutputStream output) throws IOException {
+        if (array.size() != 0) {
+            output.writeInt32(IntArray.SIZE_FIELD_NUMBER, array.size());
+            output.writeTag(IntArray.ELEM_FIELD_NUMBER, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+            output.writeUInt32NoTag(elemSize(array));
+            int[] data = array.data();
+            for (int i = 0; i < array.size(); ++i) {
+                output.writeInt32NoTag(data[i]);
+            }
+        }
+        if (array.getId() != 0) {
+            output.writeInt32(IntArray.ID_FIELD_NUMBER, array.getId());
+        }
+    }
+
+    private static int elemSize(IntArrayBuffer array) {
+        int[] data = array.data();
+        int size = 0;
+        for (int i = 0; i < array.size(); ++i) {
+            size += CodedOutputStream.computeInt32SizeNoTag(data[i]);
+        }
+        return size;
+    }
+
+    private IntArrayCodec() {}
+}
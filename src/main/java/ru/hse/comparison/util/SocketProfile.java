@@ -0,0 +1,93 @@
+package ru.hse.comparison.util;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.StandardSocketOptions;
+import java.nio.channels.NetworkChannel;
+
+/**
+ * Socket options applied uniformly by servers and clients. Buffer sizes and backlog equal to 0
+ * and disabled TCP_NODELAY leave the defaults of the operating system and JDK untouched.
+ */
+public class SocketProfile {
+    private boolean tcpNoDelay = false;
+    private int receiveBufferSize = 0;
+    private int sendBufferSize = 0;
+    private int backlog = 0;
+
+    public boolean isTcpNoDelay() {
+        return tcpNoDelay;
+    }
+
+    public SocketProfile setTcpNoDelay(boolean tcpNoDelay) {
+        this.tcpNoDelay = tcpNoDelay;
+        return this;
+    }
+
+    public int getReceiveBufferSize() {
+        return receiveBufferSize;
+    }
+
+    public SocketProfile setReceiveBufferSize(int receiveBufferSize) {
+        this.receiveBufferSize = receiveBufferSize;
+        return this;
+    }
+
+    public int getSendBufferSize() {
+        return sendBufferSize;
+    }
+
+    public SocketProfile setSendBufferSize(int sendBufferSize) {
+        this.sendBufferSize = sendBufferSize;
+        return this;
+    }
+
+    /**
+     * Accept backlog to pass to bind, 0 makes the JDK choose it.
+     */
+    public int getBacklog() {
+        return backlog;
+    }
+
+    public SocketProfile setBacklog(int backlog) {
+        this.backlog = backlog;
+        return this;
+    }
+
+    /**
+     * Applies options to a connected or, better, not yet connected socket channel, blocking or
+     * asynchronous, since the receive buffer size affects the TCP window negotiated on connect.
+     * Options not supported by the channel, like TCP_NODELAY of a Unix domain socket, are skipped.
+     */
+    public <T extends NetworkChannel> T apply(T channel) throws IOException {
+        if (tcpNoDelay && channel.supportedOptions().contains(StandardSocketOptions.TCP_NODELAY)) {
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        }
+        if (receiveBufferSize > 0) {
+            channel.setOption(StandardSocketOptions.SO_RCVBUF, receiveBufferSize);
+        }
+        if (sendBufferSize > 0) {
+            channel.setOption(StandardSocketOptions.SO_SNDBUF, sendBufferSize);
+        }
+        return channel;
+    }
+
+    /**
+     * Sets receive buffer size inherited by accepted sockets, must be called before bind.
+     */
+    public void applyToServer(NetworkChannel serverChannel) throws IOException {
+        if (receiveBufferSize > 0 && serverChannel.supportedOptions().contains(StandardSocketOptions.SO_RCVBUF)) {
+            serverChannel.setOption(StandardSocketOptions.SO_RCVBUF, receiveBufferSize);
+        }
+    }
+
+    /**
+     * Prints the profile in the same "Name = value" form as description.txt.
+     */
+    public void print(PrintStream out) {
+        out.println("TCP_NODELAY = " + tcpNoDelay);
+        out.println("SO_RCVBUF = " + (receiveBufferSize > 0 ? receiveBufferSize : "default"));
+        out.println("SO_SNDBUF = " + (sendBufferSize > 0 ? sendBufferSize : "default"));
+        out.println("Accept Backlog = " + (backlog > 0 ? backlog : "default"));
+    }
+}
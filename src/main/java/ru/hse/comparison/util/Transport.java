@@ -0,0 +1,108 @@
+package ru.hse.comparison.util;
+
+import ru.hse.comparison.Constants;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ProtocolFamily;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Transport between clients and server: TCP over loopback or a Unix domain socket, which lets
+ * to separate the cost of an architecture from the cost of the TCP stack.
+ * Unix domain sockets are looked up reflectively, so the class also loads on JDKs before 16,
+ * where using them fails with {@link UnsupportedOperationException}.
+ */
+public enum Transport {
+    TCP {
+        @Override
+        public ServerSocketChannel openServerChannel() throws IOException {
+            return ServerSocketChannel.open();
+        }
+
+        @Override
+        public void bind(ServerSocketChannel serverChannel, int backlog) throws IOException {
+            serverChannel.bind(new InetSocketAddress(Constants.PORT), backlog);
+        }
+
+        @Override
+        public SocketChannel openChannel() throws IOException {
+            return SocketChannel.open();
+        }
+
+        @Override
+        public SocketAddress serverAddress() {
+            return new InetSocketAddress(Constants.HOST, Constants.PORT);
+        }
+
+        @Override
+        public void unbind() {
+        }
+    },
+    UNIX {
+        @Override
+        public ServerSocketChannel openServerChannel() throws IOException {
+            return ServerSocketChannel.open(unixProtocolFamily());
+        }
+
+        // a socket file left by a server which was not stopped properly would make bind fail
+        @Override
+        public void bind(ServerSocketChannel serverChannel, int backlog) throws IOException {
+            Files.deleteIfExists(Constants.SOCKET_PATH);
+            serverChannel.bind(serverAddress(), backlog);
+        }
+
+        @Override
+        public SocketChannel openChannel() throws IOException {
+            return SocketChannel.open(unixProtocolFamily());
+        }
+
+        @Override
+        public SocketAddress serverAddress() {
+            return unixSocketAddress(Constants.SOCKET_PATH);
+        }
+
+        @Override
+        public void unbind() throws IOException {
+            Files.deleteIfExists(Constants.SOCKET_PATH);
+        }
+    };
+
+    public abstract ServerSocketChannel openServerChannel() throws IOException;
+
+    public abstract void bind(ServerSocketChannel serverChannel, int backlog) throws IOException;
+
+    public abstract SocketChannel openChannel() throws IOException;
+
+    /**
+     * Address clients connect to.
+     */
+    public abstract SocketAddress serverAddress();
+
+    /**
+     * Removes what the bound server leaves behind after its channel is closed.
+     */
+    public abstract void unbind() throws IOException;
+
+    private static ProtocolFamily unixProtocolFamily() {
+        try {
+            return StandardProtocolFamily.valueOf("UNIX");
+        } catch (IllegalArgumentException e) {
+            throw new UnsupportedOperationException("Unix domain sockets are not supported by this JVM", e);
+        }
+    }
+
+    private static SocketAddress unixSocketAddress(Path path) {
+        try {
+            return (SocketAddress) Class.forName("java.net.UnixDomainSocketAddress")
+                    .getMethod("of", Path.class).invoke(null, path);
+        } catch (ReflectiveOperationException e) {
+            throw new UnsupportedOperationException("Unix domain sockets are not supported by this JVM", e);
+        }
+    }
+}
@@ -1,45 +1,80 @@
 package ru.hse.comparison.util;
 
-import ru.hse.comparison.protos.IntArray;
+import ru.hse.comparison.sort.SortEngine;
 
+import java.io.EOFException;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
 import java.nio.ByteBuffer;
-import java.util.ArrayList;
-import java.util.Arrays;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.IntFunction;
 
 public class Utils {
-    public static ArrayList<Integer> readArray(InputStream inputStream) throws IOException {
-        byte[] sizeBuf = inputStream.readNBytes(Integer.BYTES);
-        int size = ByteBuffer.wrap(sizeBuf).getInt();
-        byte[] dataBuf = inputStream.readNBytes(size);
-        return new ArrayList<>(IntArray.parseFrom(dataBuf).getElemList());
-    }
-
-    public static void writeArray(OutputStream outputStream, List<Integer> data) throws IOException {
-        byte[] dataBuf = IntArray.newBuilder().setSize(data.size()).addAllElem(data).build().toByteArray();
-        byte[] sizeBuf = ByteBuffer.allocate(Integer.BYTES).putInt(dataBuf.length).array();
-        outputStream.write(sizeBuf);
-        outputStream.write(dataBuf);
-    }
-
-    public static List<Integer> sortArray(ArrayList<Integer> data) {
-        int[] arr = data.stream().mapToInt(Integer::intValue).toArray();
-        for (int i = 1; i < arr.length; ++i) {
-            for (int j = i; j > 0; --j) {
-                if (arr[j] < arr[j - 1]) {
-                    int tmp = arr[j];
-                    arr[j] = arr[j - 1];
-                    arr[j - 1] = tmp;
-                }
+    /**
+     * Reads one frame from a blocking channel, throws EOFException if the channel is closed before it ends.
+     */
+    public static byte[] readMessage(ReadableByteChannel channel) throws IOException {
+        ByteBuffer sizeBuf = ByteBuffer.allocate(Integer.BYTES);
+        readFully(channel, sizeBuf);
+        ByteBuffer dataBuf = ByteBuffer.allocate(sizeBuf.getInt(0));
+        readFully(channel, dataBuf);
+        return dataBuf.array();
+    }
+
+    public static void writeArray(WritableByteChannel channel, IntArrayBuffer data) throws IOException {
+        writeFully(channel, ByteBuffer.wrap(IntArrayCodec.toFrame(data)));
+    }
+
+    public static void writeBatch(WritableByteChannel channel, List<IntArrayBuffer> arrays) throws IOException {
+        writeFully(channel, ByteBuffer.wrap(IntArrayCodec.toBatchFrame(arrays)));
+    }
+
+    public static void readFully(ReadableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException();
             }
         }
-        return Arrays.stream(arr).boxed().collect(Collectors.toList());
+    }
+
+    public static void writeFully(WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    public static void sortArray(IntArrayBuffer data, SortEngine sortEngine) {
+        sortEngine.sort(data.data(), data.size());
+    }
+
+    public static void sortArrays(List<IntArrayBuffer> arrays, SortEngine sortEngine) {
+        for (IntArrayBuffer array : arrays) {
+            sortArray(array, sortEngine);
+        }
+    }
+
+    /**
+     * Sorts the array or the batch of arrays of a request message and frames the response
+     * into a buffer of the allocator, the returned buffer is ready to be written.
+     */
+    public static ByteBuffer sortMessage(ByteBuffer message, SortEngine sortEngine,
+                                         IntFunction<ByteBuffer> allocator) throws IOException {
+        ByteBuffer response;
+        if (IntArrayCodec.isBatch(message)) {
+            List<IntArrayBuffer> arrays = IntArrayCodec.parseBatch(message);
+            sortArrays(arrays, sortEngine);
+            response = allocator.apply(IntArrayCodec.batchFrameSize(arrays));
+            IntArrayCodec.writeBatchFrame(arrays, response);
+        } else {
+            IntArrayBuffer array = IntArrayCodec.parse(message, IntArrayBuffer.local());
+            sortArray(array, sortEngine);
+            response = allocator.apply(IntArrayCodec.frameSize(array));
+            IntArrayCodec.writeFrame(array, response);
+        }
+        response.flip();
+        return response;
     }
 
     private Utils() {}
 }
-
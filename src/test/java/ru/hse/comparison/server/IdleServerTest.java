@@ -0,0 +1,67 @@
+package ru.hse.comparison.server;
+
+import com.sun.management.OperatingSystemMXBean;
+import org.junit.jupiter.api.Test;
+import ru.hse.comparison.Constants;
+import ru.hse.comparison.server.impl.AsyncServer;
+import ru.hse.comparison.server.impl.BlockingServer;
+import ru.hse.comparison.server.impl.NonBlockingServer;
+import ru.hse.comparison.server.impl.ThreadPerCoreServer;
+import ru.hse.comparison.server.impl.VirtualThreadServer;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Started servers without clients must wait for connections, not spin on a core.
+ */
+public class IdleServerTest {
+    private static final long IDLE_MILLIS = 2000;
+    private static final long MAX_IDLE_CPU_MILLIS = 200;
+
+    @Test
+    public void blockingServerDoesNotBurnCpuWhileIdle() throws Exception {
+        assertIdle(new BlockingServer());
+    }
+
+    @Test
+    public void nonBlockingServerDoesNotBurnCpuWhileIdle() throws Exception {
+        assertIdle(new NonBlockingServer());
+    }
+
+    @Test
+    public void asyncServerDoesNotBurnCpuWhileIdle() throws Exception {
+        assertIdle(new AsyncServer());
+    }
+
+    @Test
+    public void virtualThreadServerDoesNotBurnCpuWhileIdle() throws Exception {
+        assumeTrue(VirtualThreadServer.isSupported(), "Virtual threads are not supported by this JVM");
+        assertIdle(new VirtualThreadServer());
+    }
+
+    @Test
+    public void threadPerCoreServerDoesNotBurnCpuWhileIdle() throws Exception {
+        assertIdle(new ThreadPerCoreServer());
+    }
+
+    static void assertIdle(Server server) throws Exception {
+        OperatingSystemMXBean os = (OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+        server.start();
+        try {
+            server.awaitReady();
+            long cpuStart = os.getProcessCpuTime();
+            Thread.sleep(IDLE_MILLIS);
+            long cpuMillis = TimeUnit.NANOSECONDS.toMillis(os.getProcessCpuTime() - cpuStart);
+            assertTrue(cpuMillis < MAX_IDLE_CPU_MILLIS,
+                    "Idle server used " + cpuMillis + " ms of CPU in " + IDLE_MILLIS + " ms");
+        } finally {
+            server.stop();
+            assertTrue(server.awaitTermination(Constants.SERVER_STOP_TIMEOUT, TimeUnit.MILLISECONDS),
+                    "Server did not stop");
+        }
+    }
+}